@@ -0,0 +1,220 @@
+package com.example.forksnews;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A local HTTP server for tests that answers requests with scripted responses, errors and dropped
+ * connections, one per request in the order they were enqueued. Once the script runs out the last
+ * response is repeated.
+ * <p>
+ * Every response closes its connection unless keep-alive is turned on, see {@link
+ * #setKeepAlive(boolean)}.
+ */
+final class FaultInjectingServer implements Closeable {
+
+  private final ServerSocket serverSocket;
+  private final Deque<Reply> script = new ArrayDeque<>();
+  private final List<Long> requestTimes = Collections.synchronizedList(new ArrayList<>());
+  // the connections accepted so far, closed with the server
+  private final List<Socket> connections = Collections.synchronizedList(new ArrayList<>());
+  private final Thread acceptThread;
+  private volatile boolean keepAlive;
+  private Reply last;
+
+  FaultInjectingServer() throws IOException {
+    serverSocket = new ServerSocket(0, 50, InetAddress.getByName("127.0.0.1"));
+    acceptThread = new Thread(this::serve, "FaultInjectingServer");
+    acceptThread.setDaemon(true);
+    acceptThread.start();
+  }
+
+  /**
+   * Return the URL of {@param path} on this server.
+   */
+  String url(String path) {
+    return "http://127.0.0.1:" + serverSocket.getLocalPort() + path;
+  }
+
+  /**
+   * Answer the next request with {@param code}, {@param body} and the given extra headers, given
+   * as name and value pairs.
+   */
+  synchronized FaultInjectingServer enqueue(int code, String body, String... headers) {
+    script.add(new Reply(code, body.getBytes(StandardCharsets.UTF_8), headers, false));
+    return this;
+  }
+
+  /**
+   * Answer the next request with {@param code} and {@param body} gzip encoded, with the given
+   * extra headers, given as name and value pairs.
+   */
+  synchronized FaultInjectingServer enqueueGzip(int code, String body, String... headers)
+      throws IOException {
+    ByteArrayOutputStream gzipped = new ByteArrayOutputStream();
+    try (GZIPOutputStream gzip = new GZIPOutputStream(gzipped)) {
+      gzip.write(body.getBytes(StandardCharsets.UTF_8));
+    }
+    String[] encoded = Arrays.copyOf(headers, headers.length + 2);
+    encoded[headers.length] = "Content-Encoding";
+    encoded[headers.length + 1] = "gzip";
+    script.add(new Reply(code, gzipped.toByteArray(), encoded, false));
+    return this;
+  }
+
+  /**
+   * Answer the next request with a 200 whose connection drops halfway through {@param body}.
+   */
+  synchronized FaultInjectingServer enqueueDisconnect(String body) {
+    script.add(new Reply(200, body.getBytes(StandardCharsets.UTF_8), new String[0], true));
+    return this;
+  }
+
+  /**
+   * Keep connections open after each response for the next request on them, or close them.
+   */
+  FaultInjectingServer setKeepAlive(boolean keepAlive) {
+    this.keepAlive = keepAlive;
+    return this;
+  }
+
+  /**
+   * Return how many connections have been accepted.
+   */
+  int getConnectionCount() {
+    return connections.size();
+  }
+
+  /**
+   * Return how many requests have been received.
+   */
+  int getRequestCount() {
+    return requestTimes.size();
+  }
+
+  /**
+   * Return when each request was received, in {@link System#nanoTime()} nanoseconds.
+   */
+  List<Long> getRequestTimes() {
+    synchronized (requestTimes) {
+      return new ArrayList<>(requestTimes);
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    serverSocket.close();
+    synchronized (connections) {
+      for (Socket socket : connections) {
+        socket.close();
+      }
+    }
+    try {
+      acceptThread.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  // Helper methods
+
+  private void serve() {
+    while (!serverSocket.isClosed()) {
+      try {
+        Socket socket = serverSocket.accept();
+        connections.add(socket);
+        // A kept alive connection waits for its next request while others come in
+        Thread thread = new Thread(() -> answer(socket), "FaultInjectingServer connection");
+        thread.setDaemon(true);
+        thread.start();
+      } catch (IOException e) {
+        // closed
+      }
+    }
+  }
+
+  /**
+   * Answer the requests that come in on {@param socket}, until either side closes it.
+   */
+  private void answer(Socket socket) {
+    try (Socket connection = socket) {
+      BufferedReader in = new BufferedReader(
+          new InputStreamReader(connection.getInputStream(), StandardCharsets.ISO_8859_1));
+      boolean open = true;
+      while (open) {
+        // Read the request line and headers, GET requests have no body
+        String line = in.readLine();
+        if (line == null) {
+          return;
+        }
+        while ((line = in.readLine()) != null && !line.isEmpty()) {
+          // skip
+        }
+        requestTimes.add(System.nanoTime());
+        Reply reply = nextReply();
+        open = keepAlive && !reply.disconnect;
+        reply.write(connection.getOutputStream(), open);
+      }
+    } catch (IOException e) {
+      // closed, or the client gave up on the connection
+    }
+  }
+
+  private synchronized Reply nextReply() {
+    if (!script.isEmpty()) {
+      last = script.poll();
+    }
+    return last != null ? last : new Reply(404, new byte[0], new String[0], false);
+  }
+
+  /**
+   * A scripted response.
+   */
+  private static final class Reply {
+
+    private final int code;
+    private final byte[] body;
+    private final String[] headers;
+    private final boolean disconnect;
+
+    Reply(int code, byte[] body, String[] headers, boolean disconnect) {
+      this.code = code;
+      this.body = body;
+      this.headers = headers;
+      this.disconnect = disconnect;
+    }
+
+    void write(OutputStream out, boolean keepAlive) throws IOException {
+      StringBuilder head = new StringBuilder()
+          .append("HTTP/1.1 ").append(code).append(" Scripted\r\n")
+          .append("Content-Type: application/json\r\n")
+          .append("Content-Length: ").append(body.length).append("\r\n");
+      if (!keepAlive) {
+        head.append("Connection: close\r\n");
+      }
+      for (int i = 0; i + 1 < headers.length; i += 2) {
+        head.append(headers[i]).append(": ").append(headers[i + 1]).append("\r\n");
+      }
+      head.append("\r\n");
+      out.write(head.toString().getBytes(StandardCharsets.ISO_8859_1));
+      // A dropped connection leaves the body short of its Content-Length
+      out.write(body, 0, disconnect ? body.length / 2 : body.length);
+      out.flush();
+    }
+  }
+}
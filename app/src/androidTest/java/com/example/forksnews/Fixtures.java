@@ -0,0 +1,81 @@
+package com.example.forksnews;
+
+import android.content.res.AssetManager;
+import android.graphics.Bitmap;
+import android.graphics.Color;
+import androidx.test.platform.app.InstrumentationRegistry;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Recorded Guardian responses for tests and benchmarks.
+ */
+final class Fixtures {
+
+  // A recorded /search response with 4 results
+  static final String SEARCH = "search_conspiracy.json";
+  // The size of the thumbnails the API links to
+  static final int THUMBNAIL_WIDTH = 500;
+  static final int THUMBNAIL_HEIGHT = 300;
+
+  // static use only
+  private Fixtures() {
+  }
+
+  /**
+   * Return the fixture asset called {@param name}.
+   */
+  static String read(String name) throws IOException {
+    AssetManager assets = InstrumentationRegistry.getInstrumentation().getContext().getAssets();
+    try (InputStream inputStream = assets.open(name)) {
+      return QueryUtils.readFromStream(inputStream);
+    }
+  }
+
+  /**
+   * Return a /search response with {@param resultCount} results, synthesized by cycling through the
+   * 4 recorded results and giving every copy its own id and links. Everything else repeats.
+   */
+  static String searchResponse(int resultCount) throws IOException, JSONException {
+    JSONObject base = new JSONObject(read(SEARCH));
+    JSONObject response = base.getJSONObject("response");
+    JSONArray recorded = response.getJSONArray("results");
+
+    JSONArray results = new JSONArray();
+    for (int i = 0; i < resultCount; i++) {
+      JSONObject result = new JSONObject(recorded.getJSONObject(i % recorded.length()).toString());
+      result.put("id", result.getString("id") + "-" + i);
+      result.put("webUrl", result.getString("webUrl") + "-" + i);
+      result.put("apiUrl", result.getString("apiUrl") + "-" + i);
+      results.put(result);
+    }
+    response.put("results", results);
+    response.put("total", resultCount);
+    response.put("pageSize", resultCount);
+    return base.toString();
+  }
+
+  /**
+   * Return a JPEG thumbnail the size of the API's, a gradient so it compresses like a photo rather
+   * than to nothing.
+   */
+  static byte[] thumbnail() {
+    int[] pixels = new int[THUMBNAIL_WIDTH * THUMBNAIL_HEIGHT];
+    for (int y = 0; y < THUMBNAIL_HEIGHT; y++) {
+      for (int x = 0; x < THUMBNAIL_WIDTH; x++) {
+        pixels[y * THUMBNAIL_WIDTH + x] = Color.rgb(x * 255 / THUMBNAIL_WIDTH,
+            y * 255 / THUMBNAIL_HEIGHT, (x + y) & 0xff);
+      }
+    }
+    Bitmap bitmap = Bitmap.createBitmap(pixels, THUMBNAIL_WIDTH, THUMBNAIL_HEIGHT,
+        Bitmap.Config.ARGB_8888);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    bitmap.compress(Bitmap.CompressFormat.JPEG, 85, out);
+    bitmap.recycle();
+    return out.toByteArray();
+  }
+}
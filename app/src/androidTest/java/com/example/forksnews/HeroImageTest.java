@@ -0,0 +1,81 @@
+package com.example.forksnews;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.os.Build.VERSION_CODES;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.SdkSuppress;
+import androidx.test.platform.app.InstrumentationRegistry;
+import com.bumptech.glide.Glide;
+import com.bumptech.glide.load.engine.DiskCacheStrategy;
+import com.bumptech.glide.request.RequestOptions;
+import java.util.concurrent.ExecutionException;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Decodes a thumbnail the size of the API's for a main card wider than it, with the hero options
+ * of {@link ForksNewsGlideModule} and as a fitCenter ImageView has Glide load it by default, and
+ * compares the bitmaps. {@link HeroDecodeBenchmark} times the same decodes.
+ */
+@RunWith(AndroidJUnit4.class)
+@SdkSuppress(minSdkVersion = VERSION_CODES.KITKAT)
+public class HeroImageTest {
+
+  // The main card of a 1080 pixel wide phone
+  static final int CARD_WIDTH = 1000;
+  // What Glide measures a wrap_content height as on the same phone
+  private static final int MAX_DISPLAY_LENGTH = 2000;
+
+  private Context context;
+  private byte[] thumbnail;
+
+  @Before
+  public void setUp() {
+    context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+    thumbnail = Fixtures.thumbnail();
+  }
+
+  @Test
+  public void heroIsDecodedAsItIsRatherThanFittedToTheCard()
+      throws ExecutionException, InterruptedException {
+    Bitmap hero = decode(context, thumbnail, ForksNewsGlideModule.heroOptions(CARD_WIDTH));
+    Bitmap fitted = decode(context, thumbnail, fittedOptions());
+
+    assertEquals(Fixtures.THUMBNAIL_WIDTH, hero.getWidth());
+    assertEquals(CARD_WIDTH, fitted.getWidth());
+    // twice as wide and twice as tall
+    assertTrue(hero.getAllocationByteCount() * 4 <= fitted.getAllocationByteCount());
+  }
+
+  /**
+   * Return the options Glide loads an image into a fitCenter ImageView {@link #CARD_WIDTH} pixels
+   * wide and wrap_content tall with, when nothing else is asked for.
+   */
+  static RequestOptions fittedOptions() {
+    return new RequestOptions()
+        .override(CARD_WIDTH, MAX_DISPLAY_LENGTH)
+        .optionalFitCenter();
+  }
+
+  /**
+   * Decode {@param jpeg} with {@param options}, bypassing Glide's caches and hardware bitmaps so
+   * every call decodes into memory that can be counted.
+   */
+  static Bitmap decode(Context context, byte[] jpeg, RequestOptions options)
+      throws ExecutionException, InterruptedException {
+    return Glide.with(context)
+        .asBitmap()
+        .load(jpeg)
+        .apply(options)
+        .skipMemoryCache(true)
+        .diskCacheStrategy(DiskCacheStrategy.NONE)
+        .disallowHardwareConfig()
+        .submit()
+        .get();
+  }
+}
@@ -0,0 +1,59 @@
+package com.example.forksnews;
+
+import static org.junit.Assert.assertEquals;
+
+import android.content.Context;
+import android.os.Build.VERSION_CODES;
+import android.view.View;
+import android.widget.TextView;
+import androidx.test.core.app.ActivityScenario;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.SdkSuppress;
+import androidx.test.platform.app.InstrumentationRegistry;
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Starts {@link MainActivity} with no network over the feed snapshot a previous run saved, which
+ * has to stay on screen rather than give way to the no internet message.
+ */
+@RunWith(AndroidJUnit4.class)
+@SdkSuppress(minSdkVersion = VERSION_CODES.O)
+public class MainActivityOfflineTest {
+
+  private File snapshot;
+  private List<News> newsList;
+
+  @Before
+  public void setUp() throws IOException {
+    Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+    snapshot = new File(context.getFilesDir(), NewsRepository.SNAPSHOT_FILE);
+    newsList = QueryUtils.extractNews(Fixtures.read(Fixtures.SEARCH));
+    new FeedSnapshotFile(snapshot).write(
+        MainActivity.searchQuery(MainActivity.DEFAULT_SEARCH, 1).getFeedKey(), newsList);
+    MainActivity.setAssumeOffline(true);
+  }
+
+  @After
+  public void tearDown() {
+    MainActivity.setAssumeOffline(false);
+    snapshot.delete();
+  }
+
+  @Test
+  public void coldStartOfflineShowsTheSnapshot() {
+    try (ActivityScenario<MainActivity> scenario = ActivityScenario.launch(MainActivity.class)) {
+      scenario.onActivity(activity -> {
+        assertEquals(View.VISIBLE, activity.findViewById(R.id.card_main).getVisibility());
+        assertEquals(View.GONE, activity.findViewById(R.id.empty).getVisibility());
+        TextView title = activity.findViewById(R.id.title_main);
+        assertEquals(newsList.get(0).getTitle(), title.getText().toString());
+      });
+    }
+  }
+}
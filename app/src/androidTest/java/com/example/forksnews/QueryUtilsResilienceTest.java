@@ -0,0 +1,177 @@
+package com.example.forksnews;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import android.os.Build.VERSION_CODES;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.SdkSuppress;
+import androidx.test.platform.app.InstrumentationRegistry;
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Runs {@link QueryUtils} against a {@link FaultInjectingServer} to check that failed requests
+ * are retried, that an unhealthy API trips the circuit breaker and is answered from the cache, and
+ * that requests are spaced out by the rate limiter.
+ */
+@RunWith(AndroidJUnit4.class)
+@SdkSuppress(minSdkVersion = VERSION_CODES.O)
+public class QueryUtilsResilienceTest {
+
+  private static final long SHORT_DELAY = 20; // milliseconds
+
+  private FaultInjectingServer server;
+  private HttpCache previousCache;
+  private File cacheDir;
+  private String json;
+
+  @Before
+  public void setUp() throws IOException {
+    server = new FaultInjectingServer();
+    json = Fixtures.read(Fixtures.SEARCH);
+    // Every entry is stale at once, so each fetch goes to the server
+    previousCache = HttpCache.getInstalled();
+    cacheDir = new File(InstrumentationRegistry.getInstrumentation().getTargetContext()
+        .getCacheDir(), "resilience-test-" + System.nanoTime());
+    HttpCache.install(cacheDir, 1024 * 1024, 0, 0);
+    usePolicies(1000, 100, 4, 100);
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    server.close();
+    QueryUtils.resetPolicies();
+    HttpCache.setInstalled(previousCache);
+    File[] files = cacheDir.listFiles();
+    if (files != null) {
+      for (File file : files) {
+        file.delete();
+      }
+    }
+    cacheDir.delete();
+  }
+
+  @Test
+  public void retriesTransientServerErrors() {
+    server.enqueue(503, "").enqueue(500, "").enqueue(200, json);
+
+    List<News> newsList = QueryUtils.fetchNewsData(server.url("/search?q=retry"));
+
+    assertNotNull(newsList);
+    assertEquals(4, newsList.size());
+    assertEquals(3, server.getRequestCount());
+  }
+
+  @Test
+  public void retriesDroppedConnections() {
+    server.enqueueDisconnect(json).enqueue(200, json);
+
+    List<News> newsList = QueryUtils.fetchNewsData(server.url("/search?q=dropped"));
+
+    assertNotNull(newsList);
+    assertEquals(4, newsList.size());
+    assertEquals(2, server.getRequestCount());
+  }
+
+  @Test
+  public void doesNotRetryClientErrors() {
+    server.enqueue(401, "{\"message\":\"Invalid authentication credentials\"}");
+
+    assertNull(QueryUtils.fetchNewsData(server.url("/search?q=unauthorized")));
+    assertEquals(1, server.getRequestCount());
+  }
+
+  @Test
+  public void waitsOutRetryAfter() {
+    server.enqueue(429, "", "Retry-After", "1").enqueue(200, json);
+
+    long start = System.nanoTime();
+    List<News> newsList = QueryUtils.fetchNewsData(server.url("/search?q=throttled"));
+    long waited = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+    assertNotNull(newsList);
+    assertEquals(2, server.getRequestCount());
+    assertTrue("Retried after " + waited + " ms", waited >= 1000);
+  }
+
+  @Test
+  public void givesUpOnRetryAfterPastTheLimit() {
+    server.enqueue(503, "", "Retry-After", "3600").enqueue(200, json);
+
+    assertNull(QueryUtils.fetchNewsData(server.url("/search?q=maintenance")));
+    assertEquals(1, server.getRequestCount());
+  }
+
+  @Test
+  public void gzipNotModifiedIsACacheHit() {
+    String url = server.url("/search?q=not-modified");
+    server.enqueue(200, json, "ETag", "\"v1\"").enqueue(304, "", "Content-Encoding", "gzip");
+    assertNotNull(QueryUtils.fetchNewsData(url));
+
+    // The empty body is not inflated, so the 304 is not retried as a broken response
+    List<News> newsList = QueryUtils.fetchNewsData(url);
+    assertNotNull(newsList);
+    assertEquals(4, newsList.size());
+    assertEquals(2, server.getRequestCount());
+  }
+
+  @Test
+  public void openBreakerServesTheCacheWithoutRequests() {
+    usePolicies(1000, 100, 4, 3);
+    String url = server.url("/search?q=breaker");
+    server.enqueue(200, json).enqueue(503, "");
+    assertNotNull(QueryUtils.fetchNewsData(url));
+
+    // Every attempt fails until the breaker opens, then the stale entry is served
+    List<News> newsList = QueryUtils.fetchNewsData(url);
+    assertNotNull(newsList);
+    assertEquals(4, newsList.size());
+    int requests = server.getRequestCount();
+    assertEquals(1 + 3, requests);
+
+    // While it is open nothing is sent
+    newsList = QueryUtils.fetchNewsData(url);
+    assertNotNull(newsList);
+    assertEquals(4, newsList.size());
+    assertEquals(requests, server.getRequestCount());
+    assertNull(QueryUtils.fetchNewsData(server.url("/search?q=never-cached")));
+    assertEquals(requests, server.getRequestCount());
+  }
+
+  @Test
+  public void rateLimiterSpacesRequestsOut() {
+    // 20 a second after a burst of 2
+    usePolicies(20, 2, 1, 100);
+    server.enqueue(200, json);
+
+    for (int i = 0; i < 6; i++) {
+      assertNotNull(QueryUtils.fetchNewsData(server.url("/search?q=limited&page=" + i)));
+    }
+
+    List<Long> times = server.getRequestTimes();
+    assertEquals(6, times.size());
+    // Past the burst every request needs a permit refilled 50 ms after the one before. Permits
+    // refill while the first requests are in flight, so the spread counts from the first.
+    long spread = TimeUnit.NANOSECONDS.toMillis(times.get(5) - times.get(0));
+    assertTrue("6 limited requests took " + spread + " ms", spread >= 4 * 50 - SHORT_DELAY);
+  }
+
+  // Helper methods
+
+  private static void usePolicies(double permitsPerSecond, int burst, int maxAttempts,
+      int breakerThreshold) {
+    QueryUtils.setPolicies(new RateLimiter(permitsPerSecond, burst),
+        new RetryPolicy(maxAttempts, SHORT_DELAY, SHORT_DELAY, 5000, new Random(1)),
+        new CircuitBreaker(breakerThreshold, 60000));
+  }
+}
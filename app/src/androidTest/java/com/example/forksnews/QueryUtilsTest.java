@@ -0,0 +1,122 @@
+package com.example.forksnews;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import android.os.Build.VERSION_CODES;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.SdkSuppress;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Checks that the streaming parse path of {@link QueryUtils} produces the same news as the DOM
+ * path for recorded Guardian responses.
+ */
+@RunWith(AndroidJUnit4.class)
+@SdkSuppress(minSdkVersion = VERSION_CODES.O)
+public class QueryUtilsTest {
+
+  @Test
+  public void streamingParse_matchesDomParse() throws IOException {
+    String json = Fixtures.read(Fixtures.SEARCH);
+
+    List<News> expected = QueryUtils.extractNews(json);
+    List<News> actual = QueryUtils.extractNews(toStream(json));
+
+    assertEquals(4, expected.size());
+    assertSameNews(expected, actual);
+  }
+
+  @Test
+  public void streamingParse_formatsContributors() throws IOException {
+    List<News> newsList = QueryUtils.extractNews(toStream(Fixtures.read(Fixtures.SEARCH)));
+
+    assertEquals("Lois Beckett", newsList.get(0).getContributor());
+    assertEquals("Alex Hern et al.", newsList.get(1).getContributor());
+    assertEquals("Anonymous", newsList.get(2).getContributor());
+    assertEquals("Anonymous", newsList.get(3).getContributor());
+  }
+
+  @Test
+  public void streamingParse_readsArticleIds() throws IOException {
+    List<News> newsList = QueryUtils.extractNews(toStream(Fixtures.read(Fixtures.SEARCH)));
+
+    assertEquals("us-news/2021/apr/14/qanon-conspiracy-theory-capitol",
+        newsList.get(0).getId());
+    // A live blog's link has a segment its id does not
+    assertEquals("world/2021/apr/09/covid-vaccine-misinformation-live",
+        newsList.get(3).getId());
+    assertNotEquals(newsList.get(0).getStableId(), newsList.get(1).getStableId());
+  }
+
+  @Test
+  public void streamingParse_stopsAtIncompleteResultLikeDomParse() throws IOException {
+    String json = "{\"response\":{\"results\":["
+        + "{\"webTitle\":\"First\",\"sectionName\":\"News\","
+        + "\"webPublicationDate\":\"2021-04-01T16:18:13Z\",\"webUrl\":\"https://a\","
+        + "\"fields\":{\"thumbnail\":\"https://a.jpg\"}},"
+        + "{\"webTitle\":\"No thumbnail\",\"sectionName\":\"News\","
+        + "\"webPublicationDate\":\"2021-04-01T16:18:13Z\",\"webUrl\":\"https://b\"},"
+        + "{\"webTitle\":\"Never reached\",\"sectionName\":\"News\","
+        + "\"webPublicationDate\":\"2021-04-01T16:18:13Z\",\"webUrl\":\"https://c\","
+        + "\"fields\":{\"thumbnail\":\"https://c.jpg\"}}]}}";
+
+    List<News> expected = QueryUtils.extractNews(json);
+    List<News> actual = QueryUtils.extractNews(toStream(json));
+
+    assertEquals(1, expected.size());
+    assertSameNews(expected, actual);
+  }
+
+  @Test
+  public void extractBody_prefersTheHtmlBody() throws IOException {
+    String json = "{\"response\":{\"status\":\"ok\",\"content\":{\"id\":\"a\","
+        + "\"fields\":{\"bodyText\":\"Plain\",\"body\":\"<p>Rich</p>\"}}}}";
+
+    assertEquals("<p>Rich</p>", QueryUtils.extractBody(toStream(json)));
+  }
+
+  @Test
+  public void extractBody_escapesAPlainBody() throws IOException {
+    String json = "{\"response\":{\"content\":{\"fields\":{\"bodyText\":\"A < B\"}}}}";
+
+    assertEquals("<p>A &lt; B</p>", QueryUtils.extractBody(toStream(json)));
+  }
+
+  @Test
+  public void extractBody_returnsNullWithoutABody() throws IOException {
+    String json = "{\"response\":{\"content\":{\"id\":\"a\"}}}";
+
+    assertNull(QueryUtils.extractBody(toStream(json)));
+  }
+
+  // Helper methods
+
+  private static void assertSameNews(List<News> expected, List<News> actual) {
+    assertNotNull(actual);
+    assertEquals(expected.size(), actual.size());
+    for (int i = 0; i < expected.size(); i++) {
+      News e = expected.get(i);
+      News a = actual.get(i);
+      assertEquals(e.getId(), a.getId());
+      assertEquals(e.getTitle(), a.getTitle());
+      assertEquals(e.getSection(), a.getSection());
+      assertEquals(e.getContributor(), a.getContributor());
+      assertEquals(e.getUrl(), a.getUrl());
+      assertEquals(e.getThumbnail(), a.getThumbnail());
+      assertEquals(e.getLocalTime(), a.getLocalTime());
+    }
+  }
+
+  private static InputStream toStream(String json) {
+    return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+  }
+}
@@ -0,0 +1,89 @@
+package com.example.forksnews;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Runs {@link Transport} against a {@link FaultInjectingServer} to check that drained responses
+ * hand their connection back for reuse, and that gzip bodies are counted before and after they
+ * are inflated.
+ */
+@RunWith(AndroidJUnit4.class)
+public class TransportTest {
+
+  private static final int REQUESTS = 5;
+
+  private FaultInjectingServer server;
+  private String json;
+
+  @Before
+  public void setUp() throws IOException {
+    server = new FaultInjectingServer();
+    json = Fixtures.read(Fixtures.SEARCH);
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    server.close();
+  }
+
+  @Test
+  public void reusesKeptAliveConnections() throws IOException {
+    server.setKeepAlive(true).enqueue(200, json);
+
+    for (int i = 0; i < REQUESTS; i++) {
+      assertEquals(json, fetch("/search?q=keep-alive"));
+    }
+    assertEquals(REQUESTS, server.getRequestCount());
+    assertEquals(1, server.getConnectionCount());
+  }
+
+  @Test
+  public void opensNewConnectionsWhenClosed() throws IOException {
+    server.enqueue(200, json);
+
+    for (int i = 0; i < REQUESTS; i++) {
+      assertEquals(json, fetch("/search?q=close"));
+    }
+    assertEquals(REQUESTS, server.getConnectionCount());
+  }
+
+  @Test
+  public void inflatesGzipBodies() throws IOException {
+    server.enqueueGzip(200, json);
+
+    try (Transport.Response response = Transport.get(new URL(server.url("/search?q=gzip")),
+        null)) {
+      assertEquals(json, QueryUtils.readFromStream(response.getBody()));
+      assertTrue(response.getWireBytes() < response.getDecodedBytes());
+    }
+  }
+
+  @Test
+  public void emptyGzipBodyIsNotInflated() throws IOException {
+    server.enqueue(304, "", "Content-Encoding", "gzip");
+
+    // Closing drains the body, which used to fail looking for a gzip header
+    try (Transport.Response response = Transport.get(new URL(server.url("/search?q=empty")),
+        null)) {
+      assertEquals(HttpURLConnection.HTTP_NOT_MODIFIED, response.getCode());
+    }
+  }
+
+  // Helper methods
+
+  private String fetch(String path) throws IOException {
+    try (Transport.Response response = Transport.get(new URL(server.url(path)), null)) {
+      return QueryUtils.readFromStream(response.getBody());
+    }
+  }
+}
@@ -0,0 +1,48 @@
+package com.example.forksnews;
+
+import android.content.Context;
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.platform.app.InstrumentationRegistry;
+import java.util.concurrent.ExecutionException;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+/**
+ * Benchmarks decoding a thumbnail the size of the API's for the main card, with the hero options
+ * of {@link ForksNewsGlideModule} and fitted to the card as Glide does by default. Every decode
+ * goes through Glide's threads with its caches bypassed, so both include the same hand-offs.
+ * {@link HeroImageTest} compares the bitmaps they decode.
+ */
+public class HeroDecodeBenchmark {
+
+  @Rule
+  public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+  private Context context;
+  private byte[] thumbnail;
+
+  @Before
+  public void setUp() {
+    context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+    thumbnail = Fixtures.thumbnail();
+  }
+
+  @Test
+  public void decodeHero() throws ExecutionException, InterruptedException {
+    BenchmarkState state = benchmarkRule.getState();
+    while (state.keepRunning()) {
+      HeroImageTest.decode(context, thumbnail,
+          ForksNewsGlideModule.heroOptions(HeroImageTest.CARD_WIDTH));
+    }
+  }
+
+  @Test
+  public void decodeFitted() throws ExecutionException, InterruptedException {
+    BenchmarkState state = benchmarkRule.getState();
+    while (state.keepRunning()) {
+      HeroImageTest.decode(context, thumbnail, HeroImageTest.fittedOptions());
+    }
+  }
+}
@@ -0,0 +1,181 @@
+package com.example.forksnews;
+
+import android.os.Build.VERSION_CODES;
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.filters.SdkSuppress;
+import androidx.test.platform.app.InstrumentationRegistry;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+/**
+ * Benchmarks the fetch, parse and model hot path against Guardian responses of 10, 50 and 200
+ * results. Each benchmark reports time and allocations per operation. The feed snapshot reads are
+ * the warm start alternative to parsing the cached response again.
+ * <p>
+ * Only 4 results are recorded, the larger responses are synthesized from them, see {@link
+ * Fixtures#searchResponse}. Their titles, contributors and thumbnails repeat, so string sizes and
+ * date labels vary less than in a real feed.
+ * <p>
+ * Run on a device with {@code ./gradlew connectedCheck -Pbenchmark}, which builds the
+ * non-debuggable benchmark build type and runs it with the benchmark runner. Without the property
+ * this class is not compiled, and the instrumented tests run against the debug build.
+ */
+@RunWith(Parameterized.class)
+@SdkSuppress(minSdkVersion = VERSION_CODES.O)
+public class HotPathBenchmark {
+
+  private static final String SNAPSHOT_FEED = "search?q=conspiracy";
+
+  @Rule
+  public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+  private final int resultCount;
+  private String json;
+  private byte[] body;
+  private JSONObject result;
+  private List<News> newsList;
+  // the constructor arguments of every news, as read off the response
+  private String[][] fields;
+  private File snapshotPath;
+  private FeedSnapshotFile snapshotFile;
+
+  public HotPathBenchmark(int resultCount) {
+    this.resultCount = resultCount;
+  }
+
+  @Parameters(name = "results={0}")
+  public static Collection<Object[]> resultCounts() {
+    return Arrays.asList(new Object[][]{{10}, {50}, {200}});
+  }
+
+  @Before
+  public void setUp() throws IOException, JSONException {
+    snapshotPath = new File(InstrumentationRegistry.getInstrumentation().getTargetContext()
+        .getCacheDir(), "benchmark.snapshot");
+    snapshotFile = new FeedSnapshotFile(snapshotPath);
+    json = Fixtures.searchResponse(resultCount);
+    body = json.getBytes(StandardCharsets.UTF_8);
+    result = new JSONObject(json).getJSONObject("response").getJSONArray("results")
+        .getJSONObject(1);
+    newsList = QueryUtils.extractNews(json);
+    fields = new String[newsList.size()][];
+    for (int i = 0; i < fields.length; i++) {
+      News news = newsList.get(i);
+      fields[i] = new String[]{news.getTitle(), news.getSection(), "2021-04-14T10:00:32Z",
+          news.getContributor(), news.getUrl(), news.getThumbnail()};
+    }
+    snapshotFile.write(SNAPSHOT_FEED, newsList);
+  }
+
+  @After
+  public void tearDown() {
+    snapshotPath.delete();
+  }
+
+  @Test
+  public void readFromStream() throws IOException {
+    BenchmarkState state = benchmarkRule.getState();
+    while (state.keepRunning()) {
+      QueryUtils.readFromStream(new ByteArrayInputStream(body));
+    }
+  }
+
+  @Test
+  public void extractNews_dom() {
+    BenchmarkState state = benchmarkRule.getState();
+    while (state.keepRunning()) {
+      QueryUtils.extractNews(json);
+    }
+  }
+
+  @Test
+  public void extractNews_streaming() throws IOException {
+    BenchmarkState state = benchmarkRule.getState();
+    while (state.keepRunning()) {
+      QueryUtils.extractNews(new ByteArrayInputStream(body));
+    }
+  }
+
+  @Test
+  public void snapshotRead() throws IOException {
+    BenchmarkState state = benchmarkRule.getState();
+    while (state.keepRunning()) {
+      snapshotFile.read(SNAPSHOT_FEED);
+    }
+  }
+
+  @Test
+  public void snapshotWrite() throws IOException {
+    BenchmarkState state = benchmarkRule.getState();
+    while (state.keepRunning()) {
+      snapshotFile.write(SNAPSHOT_FEED, newsList);
+    }
+  }
+
+  @Test
+  public void getContributorFrom() {
+    BenchmarkState state = benchmarkRule.getState();
+    while (state.keepRunning()) {
+      QueryUtils.getContributorFrom(result);
+    }
+  }
+
+  @Test
+  public void newsConstruction() {
+    BenchmarkState state = benchmarkRule.getState();
+    while (state.keepRunning()) {
+      for (String[] f : fields) {
+        new News(f[0], f[1], f[2], f[3], f[4], f[5]);
+      }
+    }
+  }
+
+  @Test
+  public void getPast_cached() {
+    BenchmarkState state = benchmarkRule.getState();
+    long now = System.currentTimeMillis();
+    while (state.keepRunning()) {
+      for (News news : newsList) {
+        news.getPast(now);
+      }
+    }
+  }
+
+  @Test
+  public void getPast_expired() {
+    BenchmarkState state = benchmarkRule.getState();
+    long now = System.currentTimeMillis();
+    while (state.keepRunning()) {
+      // A day later every label has changed
+      now += 24 * 60 * 60 * 1000;
+      for (News news : newsList) {
+        news.getPast(now);
+      }
+    }
+  }
+
+  @Test
+  public void getLocalTime() {
+    BenchmarkState state = benchmarkRule.getState();
+    while (state.keepRunning()) {
+      for (News news : newsList) {
+        news.getLocalTime();
+      }
+    }
+  }
+}
@@ -0,0 +1,82 @@
+package com.example.forksnews;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.Collection;
+import org.json.JSONException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+/**
+ * Benchmarks a /search request through {@link Transport} against a local {@link
+ * FaultInjectingServer}, with and without keep-alive and with and without gzip. The response is
+ * the one of 50 results synthesized by {@link Fixtures#searchResponse}.
+ * <p>
+ * Over loopback a new connection costs only the TCP handshake, where the API also costs TLS and a
+ * round trip, and the bytes gzip saves cost nothing to send. The numbers bound what keep-alive
+ * saves from below and what inflating costs from above. {@link TransportTest} checks the
+ * connections reused and the bytes saved.
+ */
+@RunWith(Parameterized.class)
+public class TransportBenchmark {
+
+  private static final int RESULT_COUNT = 50;
+
+  @Rule
+  public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+  private final boolean keepAlive;
+  private final boolean gzip;
+  private FaultInjectingServer server;
+  private URL url;
+
+  public TransportBenchmark(boolean keepAlive, boolean gzip) {
+    this.keepAlive = keepAlive;
+    this.gzip = gzip;
+  }
+
+  @Parameters(name = "keepAlive={0},gzip={1}")
+  public static Collection<Object[]> modes() {
+    return Arrays.asList(new Object[][]{{false, false}, {false, true}, {true, false}, {true, true}});
+  }
+
+  @Before
+  public void setUp() throws IOException, JSONException {
+    String json = Fixtures.searchResponse(RESULT_COUNT);
+    server = new FaultInjectingServer().setKeepAlive(keepAlive);
+    if (gzip) {
+      server.enqueueGzip(200, json);
+    } else {
+      server.enqueue(200, json);
+    }
+    url = new URL(server.url("/search?q=benchmark"));
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    server.close();
+  }
+
+  @Test
+  public void get() throws IOException {
+    BenchmarkState state = benchmarkRule.getState();
+    byte[] buffer = new byte[8192];
+    while (state.keepRunning()) {
+      try (Transport.Response response = Transport.get(url, null)) {
+        InputStream body = response.getBody();
+        while (body.read(buffer) != -1) {
+          // discard
+        }
+      }
+    }
+  }
+}
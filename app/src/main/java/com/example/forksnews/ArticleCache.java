@@ -0,0 +1,168 @@
+package com.example.forksnews;
+
+import static com.example.forksnews.MainActivity.LOG_TAG;
+
+import android.util.Log;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Persistent cache of article bodies, keyed by article id, that the {@link ReaderActivity} opens
+ * articles from.
+ * <p>
+ * An entry is the time it was stored followed by the body as UTF-8, written to a temporary file
+ * first so a failed write never replaces a good entry. Entries younger than {@code maxAge} are
+ * used without asking the server again, older ones only when it cannot be reached. The cache
+ * evicts least recently used entries once it grows past {@code maxSize} bytes.
+ */
+public final class ArticleCache {
+
+  private static final String SUFFIX = ".article";
+  private static final String TEMP_SUFFIX = ".tmp";
+
+  private final File directory;
+  private final long maxSize;
+  private final long maxAge;
+
+  /**
+   * @param directory Where entries are stored, usually under the app's cache dir
+   * @param maxSize   The size in bytes past which least recently used entries go
+   * @param maxAge    How long in milliseconds an entry is used without asking the server again
+   */
+  public ArticleCache(File directory, long maxSize, long maxAge) {
+    this.directory = directory;
+    this.maxSize = maxSize;
+    this.maxAge = maxAge;
+  }
+
+  /**
+   * Return the entry stored for the article with {@param id}, or null if there is none.
+   */
+  public synchronized Entry get(String id) {
+    File file = fileOf(id);
+    if (!file.isFile()) {
+      return null;
+    }
+
+    try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+      long storedAt = in.readLong();
+      byte[] body = new byte[in.readInt()];
+      in.readFully(body);
+      // Mark the entry as recently used
+      file.setLastModified(System.currentTimeMillis());
+      return new Entry(new String(body, StandardCharsets.UTF_8), storedAt);
+    } catch (IOException | RuntimeException e) {
+      // cut short or a length out of bounds, the file is damaged
+      Log.e(LOG_TAG, "Problem reading the cached article " + id, e);
+      file.delete();
+      return null;
+    }
+  }
+
+  /**
+   * Store {@param body} as the body of the article with {@param id}.
+   */
+  public void put(String id, String body) throws IOException {
+    if (!directory.isDirectory() && !directory.mkdirs()) {
+      throw new IOException("Could not create the article cache directory " + directory);
+    }
+    File file = fileOf(id);
+    File temp = new File(file.getPath() + TEMP_SUFFIX + Thread.currentThread().getId());
+    byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+    try (DataOutputStream out = new DataOutputStream(new FileOutputStream(temp))) {
+      out.writeLong(System.currentTimeMillis());
+      out.writeInt(bytes.length);
+      out.write(bytes);
+    } catch (IOException e) {
+      temp.delete();
+      throw e;
+    }
+
+    synchronized (this) {
+      if (!temp.renameTo(file)) {
+        temp.delete();
+        throw new IOException("Could not commit the cached article " + id);
+      }
+      trimToSize();
+    }
+  }
+
+  /**
+   * Return the number of bytes the cached articles take on disk.
+   */
+  public synchronized long size() {
+    long size = 0;
+    for (File file : entryFiles()) {
+      size += file.length();
+    }
+    return size;
+  }
+
+  // Helper methods
+
+  private File fileOf(String id) {
+    return new File(directory, HttpCache.fileName(id) + SUFFIX);
+  }
+
+  /**
+   * Evict least recently used entries until the cache fits in {@link #maxSize}.
+   */
+  private void trimToSize() {
+    File[] entries = entryFiles();
+    long size = 0;
+    for (File file : entries) {
+      size += file.length();
+    }
+    if (size <= maxSize) {
+      return;
+    }
+
+    Arrays.sort(entries, (a, b) -> Long.compare(a.lastModified(), b.lastModified()));
+    for (File file : entries) {
+      if (size <= maxSize) {
+        break;
+      }
+      size -= file.length();
+      file.delete();
+    }
+  }
+
+  private File[] entryFiles() {
+    File[] files = directory.listFiles((dir, name) -> name.endsWith(SUFFIX));
+    return files == null ? new File[0] : files;
+  }
+
+  /**
+   * A cached article body.
+   */
+  public final class Entry {
+
+    private final String body;
+    private final long storedAt;
+
+    private Entry(String body, long storedAt) {
+      this.body = body;
+      this.storedAt = storedAt;
+    }
+
+    /**
+     * Return the body as HTML.
+     */
+    public String getBody() {
+      return body;
+    }
+
+    /**
+     * Whether the entry can be used without asking the server again.
+     */
+    public boolean isFresh() {
+      return System.currentTimeMillis() - storedAt < maxAge;
+    }
+  }
+}
@@ -0,0 +1,168 @@
+package com.example.forksnews;
+
+import android.os.Looper;
+import android.os.MessageQueue;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+import com.example.forksnews.NewsRepository.Priority;
+import com.example.forksnews.NewsRepository.Request;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Prefetches the bodies of the articles on screen into the {@link ArticleCache}, so opening one in
+ * the {@link ReaderActivity} needs no request.
+ * <p>
+ * Once the main thread goes idle after a feed is shown or the strip stops scrolling, the main
+ * article and the first few visible related articles are loaded at {@link Priority#LOW}, main
+ * first, so they queue behind every feed and page load. Prefetches of articles that scroll out of
+ * view are cancelled as the strip scrolls.
+ */
+public class ArticlePrefetcher extends RecyclerView.OnScrollListener {
+
+  // How many of the visible related articles are prefetched besides the main one
+  private static final int MAX_RELATED = 3;
+
+  private final NewsRepository repository;
+  private final RecyclerView recyclerView;
+  // prefetches in flight by article id
+  private final Map<String, Request<String>> prefetches = new HashMap<>();
+  // articles of the shown feed already prefetched
+  private final Set<String> prefetched = new HashSet<>();
+  private final MessageQueue.IdleHandler onIdle = this::onIdle;
+  private News main;
+  private boolean running;
+  private boolean idleQueued;
+
+  /**
+   * Prefetch the articles of {@param recyclerView}, whose adapter must be a {@link NewsAdapter}
+   * and its layout manager a {@link LinearLayoutManager}.
+   */
+  public ArticlePrefetcher(NewsRepository repository, RecyclerView recyclerView) {
+    this.repository = repository;
+    this.recyclerView = recyclerView;
+    recyclerView.addOnScrollListener(this);
+  }
+
+  public void start() {
+    running = true;
+    schedule();
+  }
+
+  /**
+   * Stop prefetching and cancel the prefetches in flight.
+   */
+  public void stop() {
+    running = false;
+    if (idleQueued) {
+      idleQueued = false;
+      Looper.myQueue().removeIdleHandler(onIdle);
+    }
+    cancelAllBut(Collections.<String>emptySet());
+  }
+
+  /**
+   * Prefetch the articles of a newly shown feed, whose main article is {@param main}.
+   */
+  public void onFeedShown(News main) {
+    this.main = main;
+    prefetched.clear();
+    schedule();
+  }
+
+  @Override
+  public void onScrollStateChanged(RecyclerView recyclerView, int newState) {
+    if (newState == RecyclerView.SCROLL_STATE_IDLE) {
+      schedule();
+    }
+  }
+
+  @Override
+  public void onScrolled(RecyclerView recyclerView, int dx, int dy) {
+    if (!prefetches.isEmpty()) {
+      cancelAllBut(visibleIds(Integer.MAX_VALUE));
+    }
+  }
+
+  // Helper methods
+
+  private void schedule() {
+    if (running && !idleQueued) {
+      idleQueued = true;
+      Looper.myQueue().addIdleHandler(onIdle);
+    }
+  }
+
+  private boolean onIdle() {
+    idleQueued = false;
+    if (!running || recyclerView.getScrollState() != RecyclerView.SCROLL_STATE_IDLE) {
+      // prefetched once the strip settles
+      return false;
+    }
+
+    Set<String> wanted = visibleIds(MAX_RELATED);
+    cancelAllBut(wanted);
+    for (String id : wanted) {
+      if (!prefetches.containsKey(id) && !prefetched.contains(id)) {
+        prefetches.put(id, repository.loadArticle(id, Priority.LOW, body -> {
+          prefetches.remove(id);
+          if (body != null) {
+            prefetched.add(id);
+          }
+        }));
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Return the ids of the main article and of up to {@param maxRelated} of the visible related
+   * articles, in that order, leaving out articles the content API does not serve.
+   */
+  private Set<String> visibleIds(int maxRelated) {
+    Set<String> ids = new LinkedHashSet<>();
+    if (main != null && main.hasContentId()) {
+      ids.add(main.getId());
+    }
+
+    NewsAdapter adapter = (NewsAdapter) recyclerView.getAdapter();
+    LinearLayoutManager layoutManager = (LinearLayoutManager) recyclerView.getLayoutManager();
+    if (adapter == null || layoutManager == null) {
+      return ids;
+    }
+    int first = layoutManager.findFirstVisibleItemPosition();
+    int last = layoutManager.findLastVisibleItemPosition();
+    if (first == RecyclerView.NO_POSITION) {
+      return ids;
+    }
+    int related = 0;
+    for (int position = first; position <= last && position < adapter.getItemCount()
+        && related < maxRelated; position++) {
+      News news = adapter.getItem(position);
+      if (news.hasContentId()) {
+        ids.add(news.getId());
+        related++;
+      }
+    }
+    return ids;
+  }
+
+  /**
+   * Cancel the prefetches of articles other than {@param keep}.
+   */
+  private void cancelAllBut(Set<String> keep) {
+    Iterator<Map.Entry<String, Request<String>>> entries = prefetches.entrySet().iterator();
+    while (entries.hasNext()) {
+      Map.Entry<String, Request<String>> entry = entries.next();
+      if (!keep.contains(entry.getKey())) {
+        entry.getValue().cancel();
+        entries.remove();
+      }
+    }
+  }
+}
@@ -0,0 +1,181 @@
+package com.example.forksnews;
+
+import android.content.ComponentCallbacks2;
+import android.content.res.Configuration;
+import java.io.PrintWriter;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Shrinks the in-memory caches when the system runs short of memory, so the process stays small
+ * enough to be passed over by the low memory killer.
+ * <p>
+ * Each cache is a {@link Tier} of a {@link Kind}, and a trim goes through the tiers in the order
+ * of {@link Kind}, the cheapest to rebuild first. Every tier takes two steps of a trim: the first
+ * halves it and the second drops it. The trim level says how many steps a trim takes, from one
+ * for {@link #TRIM_MEMORY_RUNNING_MODERATE} to every step once the process is next in line to be
+ * killed. What is on screen is held by its views as well, so it stays whatever the tiers drop.
+ * <p>
+ * The usage of every tier is dumped by {@code adb shell dumpsys activity
+ * com.example.forksnews/.MainActivity}.
+ */
+public final class CacheManager implements ComponentCallbacks2 {
+
+  private static final CacheManager INSTANCE = new CacheManager();
+
+  /**
+   * The tiers, in the order they are trimmed.
+   */
+  public enum Kind {
+    // feeds loaded ahead or left behind, rebuilt from the network or the database
+    PREFETCHED_PAGES,
+    // page results held for going back to a recent query
+    QUERY_RESULTS,
+    // titles and contributors with their text layout measured
+    TEXT_LAYOUTS,
+    // decoded thumbnails no view shows
+    THUMBNAILS
+  }
+
+  /**
+   * A cache that can be trimmed.
+   */
+  public interface Tier {
+
+    /**
+     * Return the estimated heap the tier takes in bytes.
+     */
+    long byteSize();
+
+    /**
+     * Drop entries, least recently used first, until the tier takes at most {@param maxBytes}.
+     */
+    void trimToSize(long maxBytes);
+  }
+
+  // Steps a trim takes, two per tier
+  static final int ALL_STEPS = 2 * Kind.values().length;
+
+  // the tiers set so far, guarded by this
+  private final Map<Kind, Tier> tiers = new EnumMap<>(Kind.class);
+
+  CacheManager() {
+  }
+
+  public static CacheManager getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * Trim {@param tier} as the tier of {@param kind} from now on.
+   */
+  public synchronized void setTier(Kind kind, Tier tier) {
+    tiers.put(kind, tier);
+  }
+
+  /**
+   * Return the estimated bytes each tier set takes.
+   */
+  public Map<Kind, Long> getUsage() {
+    Map<Kind, Long> usage = new EnumMap<>(Kind.class);
+    for (Map.Entry<Kind, Tier> tier : copyTiers().entrySet()) {
+      usage.put(tier.getKey(), tier.getValue().byteSize());
+    }
+    return usage;
+  }
+
+  /**
+   * Return the estimated bytes all the tiers take. News shared by tiers is counted by each, so
+   * this is an upper bound.
+   */
+  public long getTotalBytes() {
+    long total = 0;
+    for (long bytes : getUsage().values()) {
+      total += bytes;
+    }
+    return total;
+  }
+
+  /**
+   * Write the usage of every tier to {@param writer}.
+   */
+  public void dump(String prefix, PrintWriter writer) {
+    Map<Kind, Long> usage = getUsage();
+    long total = 0;
+    writer.println(prefix + "Cache tiers (KiB):");
+    for (Map.Entry<Kind, Long> tier : usage.entrySet()) {
+      total += tier.getValue();
+      writer.println(String.format(Locale.ROOT, "%s  %-16s %8.1f",
+          prefix, tier.getKey(), tier.getValue() / 1024f));
+    }
+    writer.println(String.format(Locale.ROOT, "%s  %-16s %8.1f", prefix, "TOTAL", total / 1024f));
+  }
+
+  @Override
+  public void onTrimMemory(int level) {
+    trim(stepsFor(level));
+  }
+
+  @Override
+  public void onLowMemory() {
+    trim(ALL_STEPS);
+  }
+
+  @Override
+  public void onConfigurationChanged(Configuration newConfig) {
+  }
+
+  /**
+   * Take {@param steps} steps down the tiers, see the class comment.
+   */
+  void trim(int steps) {
+    for (Map.Entry<Kind, Tier> entry : copyTiers().entrySet()) {
+      int step = steps - 2 * entry.getKey().ordinal();
+      Tier tier = entry.getValue();
+      if (step == 1) {
+        tier.trimToSize(tier.byteSize() / 2);
+      } else if (step >= 2) {
+        tier.trimToSize(0);
+      }
+    }
+  }
+
+  /**
+   * Return how many steps a trim at {@param level} takes.
+   */
+  static int stepsFor(int level) {
+    if (level >= TRIM_MEMORY_MODERATE) {
+      // next in line to be killed, drop everything
+      return ALL_STEPS;
+    }
+    if (level >= TRIM_MEMORY_BACKGROUND) {
+      // in the background list, keep half the thumbnails for coming back
+      return ALL_STEPS - 1;
+    }
+    if (level >= TRIM_MEMORY_UI_HIDDEN) {
+      // nothing on screen, the prefetched pages can be loaded again on return
+      return 2;
+    }
+    if (level >= TRIM_MEMORY_RUNNING_CRITICAL) {
+      // about to kill services, keep only half the off screen thumbnails
+      return ALL_STEPS - 1;
+    }
+    if (level >= TRIM_MEMORY_RUNNING_LOW) {
+      return 3;
+    }
+    if (level >= TRIM_MEMORY_RUNNING_MODERATE) {
+      return 1;
+    }
+    return 0;
+  }
+
+  // Helper methods
+
+  /**
+   * Copy the tiers, so they are trimmed and measured without holding the lock.
+   */
+  private synchronized Map<Kind, Tier> copyTiers() {
+    return new EnumMap<>(tiers);
+  }
+}
@@ -0,0 +1,59 @@
+package com.example.forksnews;
+
+import java.io.InterruptedIOException;
+import java.net.HttpURLConnection;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Cancels the HTTP requests of a fetch, including ones blocked reading a response.
+ * <p>
+ * {@link Transport} registers every connection it opens for the fetch. Cancelling disconnects
+ * them, which closes their sockets, so a read blocked in another thread fails at once instead of
+ * downloading the rest of the body.
+ */
+public final class CancellationToken {
+
+  private final Set<HttpURLConnection> connections = new HashSet<>();
+  private boolean cancelled;
+
+  public synchronized boolean isCancelled() {
+    return cancelled;
+  }
+
+  /**
+   * Cancel the fetch and disconnect its open connections. Connections registered afterwards are
+   * refused.
+   */
+  public void cancel() {
+    HttpURLConnection[] open;
+    synchronized (this) {
+      if (cancelled) {
+        return;
+      }
+      cancelled = true;
+      open = connections.toArray(new HttpURLConnection[0]);
+      connections.clear();
+    }
+    // Disconnecting can block on the socket, so not while holding the lock
+    for (HttpURLConnection connection : open) {
+      connection.disconnect();
+    }
+  }
+
+  /**
+   * Register {@param connection} to be disconnected on cancellation.
+   *
+   * @throws InterruptedIOException If the fetch has already been cancelled
+   */
+  synchronized void register(HttpURLConnection connection) throws InterruptedIOException {
+    if (cancelled) {
+      throw new InterruptedIOException("Request cancelled");
+    }
+    connections.add(connection);
+  }
+
+  synchronized void unregister(HttpURLConnection connection) {
+    connections.remove(connection);
+  }
+}
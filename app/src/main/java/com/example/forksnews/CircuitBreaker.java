@@ -0,0 +1,81 @@
+package com.example.forksnews;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stops requests to a failing API for a while, so it is not kept busy by clients it cannot serve.
+ * <p>
+ * After {@code failureThreshold} failures in a row the breaker opens and refuses requests for
+ * {@code openMillis}. Then it lets a single trial request through: its success closes the breaker
+ * again, its failure opens it for another period.
+ */
+public final class CircuitBreaker {
+
+  private enum State {
+    CLOSED,
+    OPEN,
+    HALF_OPEN
+  }
+
+  private final int failureThreshold;
+  private final long openNanos;
+  private State state = State.CLOSED;
+  private int failures;
+  // when the breaker last opened, or when the trial request went out
+  private long changedAt;
+
+  /**
+   * @param failureThreshold How many failures in a row open the breaker
+   * @param openMillis       How long the breaker stays open, and how long a trial may take
+   */
+  public CircuitBreaker(int failureThreshold, long openMillis) {
+    this.failureThreshold = failureThreshold;
+    this.openNanos = TimeUnit.MILLISECONDS.toNanos(openMillis);
+  }
+
+  /**
+   * Return whether a request may go out now. A true return while the breaker is open makes that
+   * request the trial, whose outcome must be recorded.
+   */
+  public synchronized boolean allowRequest() {
+    long now = System.nanoTime();
+    switch (state) {
+      case CLOSED:
+        return true;
+      case OPEN:
+        if (now - changedAt < openNanos) {
+          return false;
+        }
+        break;
+      case HALF_OPEN:
+        // A trial whose outcome never came is given up on after the same period
+        if (now - changedAt < openNanos) {
+          return false;
+        }
+        break;
+    }
+    state = State.HALF_OPEN;
+    changedAt = now;
+    return true;
+  }
+
+  /**
+   * Return whether requests are currently refused.
+   */
+  public synchronized boolean isOpen() {
+    return state != State.CLOSED;
+  }
+
+  public synchronized void recordSuccess() {
+    state = State.CLOSED;
+    failures = 0;
+  }
+
+  public synchronized void recordFailure() {
+    failures++;
+    if (state == State.HALF_OPEN || failures >= failureThreshold) {
+      state = State.OPEN;
+      changedAt = System.nanoTime();
+    }
+  }
+}
@@ -0,0 +1,44 @@
+package com.example.forksnews;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+/**
+ * Asks for more items once a {@link RecyclerView} is scrolled to within {@code visibleThreshold}
+ * items of its end.
+ */
+public abstract class EndlessScrollListener extends RecyclerView.OnScrollListener {
+
+  private final LinearLayoutManager layoutManager;
+  private final int visibleThreshold;
+
+  /**
+   * @param layoutManager    The layout manager of the observed RecyclerView
+   * @param visibleThreshold How many items from the end the next page starts loading
+   */
+  public EndlessScrollListener(LinearLayoutManager layoutManager, int visibleThreshold) {
+    this.layoutManager = layoutManager;
+    this.visibleThreshold = visibleThreshold;
+  }
+
+  @Override
+  public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+    // Only react to scrolling towards the end
+    if (dx <= 0 && dy <= 0) {
+      return;
+    }
+
+    int itemCount = layoutManager.getItemCount();
+    int lastVisible = layoutManager.findLastVisibleItemPosition();
+    if (itemCount > 0 && lastVisible + visibleThreshold >= itemCount) {
+      onLoadMore();
+    }
+  }
+
+  /**
+   * Called when the end is within reach. May be called repeatedly while the next page is loading,
+   * so implementations must ignore requests for a page already in flight.
+   */
+  public abstract void onLoadMore();
+}
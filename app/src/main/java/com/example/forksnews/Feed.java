@@ -0,0 +1,151 @@
+package com.example.forksnews;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * An immutable snapshot of a feed as it is shown: the news on the main card and the news in the
+ * related strip, with the pages loaded so far.
+ * <p>
+ * A snapshot never changes once built, so it can be read from any thread without locks or copies.
+ * Appending a page builds the next snapshot, copying the resident news once, and leaves this one
+ * as it was.
+ */
+public final class Feed {
+
+  // Rough heap costs of the snapshot itself, on top of its news
+  private static final int FEED_OVERHEAD = 96;
+  private static final int REFERENCE_BYTES = 4;
+
+  private final String key;
+  private final News main;
+  private final List<News> related;
+  // sizes of the resident pages of related news, oldest first
+  private final int[] pageSizes;
+  private final int loadedPage;
+  private final boolean complete;
+  // computed on first use, a race only computes the same value twice
+  private int byteSize = -1;
+
+  private Feed(String key, News main, List<News> related, int[] pageSizes, int loadedPage,
+      boolean complete) {
+    this.key = key;
+    this.main = main;
+    this.related = related;
+    this.pageSizes = pageSizes;
+    this.loadedPage = loadedPage;
+    this.complete = complete;
+  }
+
+  /**
+   * Return the snapshot of a feed whose first page is {@param firstPage}.
+   *
+   * @param key      Identifies the feed in the {@link FeedStore}
+   * @param complete Whether the feed has no more pages
+   */
+  public static Feed of(String key, List<News> firstPage, boolean complete) {
+    if (firstPage.isEmpty()) {
+      return new Feed(key, null, Collections.<News>emptyList(), new int[]{0}, 1, complete);
+    }
+    List<News> related = Collections.unmodifiableList(
+        new ArrayList<>(firstPage.subList(1, firstPage.size())));
+    return new Feed(key, firstPage.get(0), related, new int[]{related.size()}, 1, complete);
+  }
+
+  /**
+   * Return the next snapshot, with {@param newsList} appended as page {@param page}. Once more
+   * than {@param maxResidentPages} pages are held the oldest are dropped from the related strip.
+   * News already in the snapshot is left out of the page: newest first, a page shifts by as many
+   * articles as were published since the one before it, and repeats its tail.
+   *
+   * @param complete Whether the feed has no more pages after this one
+   */
+  public Feed withPage(int page, List<News> newsList, int maxResidentPages, boolean complete) {
+    int dropPages = Math.max(0, pageSizes.length + 1 - maxResidentPages);
+    int dropNews = 0;
+    for (int i = 0; i < dropPages; i++) {
+      dropNews += pageSizes[i];
+    }
+
+    List<News> next = new ArrayList<>(related.size() - dropNews + newsList.size());
+    next.addAll(related.subList(dropNews, related.size()));
+    Set<String> ids = new HashSet<>();
+    if (main != null) {
+      ids.add(main.getId());
+    }
+    for (int i = 0; i < next.size(); i++) {
+      ids.add(next.get(i).getId());
+    }
+    int added = 0;
+    for (News news : newsList) {
+      if (ids.add(news.getId())) {
+        next.add(news);
+        added++;
+      }
+    }
+    int[] nextPageSizes = Arrays.copyOfRange(pageSizes, dropPages, pageSizes.length + 1);
+    nextPageSizes[nextPageSizes.length - 1] = added;
+    return new Feed(key, main, Collections.unmodifiableList(next), nextPageSizes, page,
+        complete);
+  }
+
+  public String getKey() {
+    return key;
+  }
+
+  /**
+   * Return the news shown on the main card, the first of the first page, or null if the feed is
+   * empty.
+   */
+  public News getMain() {
+    return main;
+  }
+
+  /**
+   * Return the resident news shown in the related strip. The list cannot be modified.
+   */
+  public List<News> getRelated() {
+    return related;
+  }
+
+  public boolean isEmpty() {
+    return main == null;
+  }
+
+  /**
+   * Return the last page loaded.
+   */
+  public int getLoadedPage() {
+    return loadedPage;
+  }
+
+  /**
+   * Whether the feed has no more pages to load.
+   */
+  public boolean isComplete() {
+    return complete;
+  }
+
+  /**
+   * Return the estimated heap the snapshot takes in bytes, counting its news. News shared with
+   * other snapshots is counted by each.
+   */
+  public int byteSize() {
+    int size = byteSize;
+    if (size < 0) {
+      size = FEED_OVERHEAD + REFERENCE_BYTES * (related.size() + pageSizes.length);
+      if (main != null) {
+        size += main.byteSize();
+      }
+      for (int i = 0; i < related.size(); i++) {
+        size += related.get(i).byteSize();
+      }
+      byteSize = size;
+    }
+    return size;
+  }
+}
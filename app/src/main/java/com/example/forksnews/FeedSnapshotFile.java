@@ -0,0 +1,207 @@
+package com.example.forksnews;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The last feed shown, main card first, saved in a compact binary file so the next start can show
+ * it again before any JSON is parsed.
+ * <p>
+ * The file is read with a single memory mapping and decoded straight into {@link News}, with the
+ * publication times already in epoch milliseconds. It is written to a temporary file that then
+ * replaces the old one, so a reader only ever sees a whole snapshot. The layout, big-endian:
+ * <pre>
+ *   int    magic "FNSS"
+ *   int    format version
+ *   long   when the snapshot was written, in epoch milliseconds
+ *   int    length of the rest of the file in bytes
+ *   string feed key, see {@link GuardianQuery#getFeedKey()}
+ *   int    string count, then each string
+ *   int    news count, then each news as its publication time (long) and the indexes of its
+ *          title, section, contributor, link, thumbnail link and id in the strings (int each),
+ *          the id index being -1 where the link gives the id
+ * </pre>
+ * A string is its UTF-8 length (int) and bytes. Strings repeated across the feed, mostly section
+ * names and contributors, are stored once.
+ */
+public final class FeedSnapshotFile {
+
+  private static final int MAGIC = 0x464e5353; // "FNSS"
+  // Bump when the layout changes, snapshots of other versions are ignored
+  static final int VERSION = 2;
+  private static final int HEADER_SIZE = 4 + 4 + 8 + 4;
+  // string indexes per news
+  private static final int REFS = 6;
+  private static final String TEMP_SUFFIX = ".tmp";
+
+  private final File file;
+
+  public FeedSnapshotFile(File file) {
+    this.file = file;
+  }
+
+  /**
+   * Replace the snapshot with {@param newsList}, the feed with {@param feedKey} as shown.
+   */
+  public synchronized void write(String feedKey, List<News> newsList) throws IOException {
+    File temp = new File(file.getPath() + TEMP_SUFFIX);
+    try (FileOutputStream out = new FileOutputStream(temp)) {
+      out.write(encode(feedKey, newsList, System.currentTimeMillis()));
+      // The rename must not land before the data it points at
+      out.getFD().sync();
+    } catch (IOException e) {
+      temp.delete();
+      throw e;
+    }
+    if (!temp.renameTo(file)) {
+      temp.delete();
+      throw new IOException("Could not commit the feed snapshot " + file);
+    }
+  }
+
+  /**
+   * Return the news of the snapshot if it is of the feed with {@param feedKey}, or null if there
+   * is no snapshot of it that this version can read.
+   */
+  public List<News> read(String feedKey) throws IOException {
+    MappedByteBuffer buffer;
+    try (FileInputStream in = new FileInputStream(file)) {
+      FileChannel channel = in.getChannel();
+      // The mapping stays valid after the channel is closed
+      buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    } catch (FileNotFoundException e) {
+      return null;
+    }
+    return decode(buffer, feedKey);
+  }
+
+  /**
+   * Return the snapshot file contents for {@param newsList}, see the class comment.
+   */
+  static byte[] encode(String feedKey, List<News> newsList, long savedAt) {
+    List<String> strings = new ArrayList<>();
+    Map<String, Integer> indexes = new HashMap<>();
+    int[] refs = new int[newsList.size() * REFS];
+    int r = 0;
+    for (News news : newsList) {
+      refs[r++] = indexOf(news.getTitle(), strings, indexes);
+      refs[r++] = indexOf(news.getSection(), strings, indexes);
+      refs[r++] = indexOf(news.getContributor(), strings, indexes);
+      refs[r++] = indexOf(news.getUrl(), strings, indexes);
+      refs[r++] = indexOf(news.getThumbnail(), strings, indexes);
+      refs[r++] = news.getOwnId() == null ? -1 : indexOf(news.getOwnId(), strings, indexes);
+    }
+
+    byte[] key = feedKey.getBytes(StandardCharsets.UTF_8);
+    byte[][] encoded = new byte[strings.size()][];
+    int size = HEADER_SIZE + 4 + key.length + 4 + 4 + newsList.size() * (8 + REFS * 4);
+    for (int i = 0; i < encoded.length; i++) {
+      encoded[i] = strings.get(i).getBytes(StandardCharsets.UTF_8);
+      size += 4 + encoded[i].length;
+    }
+
+    ByteBuffer buffer = ByteBuffer.allocate(size);
+    buffer.putInt(MAGIC).putInt(VERSION).putLong(savedAt).putInt(size - HEADER_SIZE);
+    buffer.putInt(key.length).put(key);
+    buffer.putInt(encoded.length);
+    for (byte[] string : encoded) {
+      buffer.putInt(string.length).put(string);
+    }
+    buffer.putInt(newsList.size());
+    r = 0;
+    for (News news : newsList) {
+      buffer.putLong(news.getPublishedAt());
+      for (int i = 0; i < REFS; i++) {
+        buffer.putInt(refs[r++]);
+      }
+    }
+    return buffer.array();
+  }
+
+  /**
+   * Return the news in the snapshot held by {@param buffer} if it is of the feed with {@param
+   * feedKey}, or null if it is not or cannot be read.
+   */
+  static List<News> decode(ByteBuffer buffer, String feedKey) {
+    if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC
+        || buffer.getInt() != VERSION) {
+      return null;
+    }
+    buffer.getLong(); // saved at
+    if (buffer.getInt() != buffer.remaining()) {
+      // cut short or padded, not a snapshot this code wrote
+      return null;
+    }
+
+    try {
+      // fits nearly every title and link, longer strings get their own array
+      byte[] scratch = new byte[1024];
+      if (!feedKey.equals(readString(buffer, scratch))) {
+        return null;
+      }
+      String[] strings = new String[readCount(buffer, 4)];
+      for (int i = 0; i < strings.length; i++) {
+        strings[i] = readString(buffer, scratch);
+      }
+      int count = readCount(buffer, 8 + REFS * 4);
+      List<News> newsList = new ArrayList<>(count);
+      for (int i = 0; i < count; i++) {
+        long publishedAt = buffer.getLong();
+        String title = strings[buffer.getInt()];
+        String section = strings[buffer.getInt()];
+        String contributor = strings[buffer.getInt()];
+        String url = strings[buffer.getInt()];
+        String thumbnail = strings[buffer.getInt()];
+        int id = buffer.getInt();
+        newsList.add(new News(id == -1 ? null : strings[id], title, section, publishedAt,
+            contributor, url, thumbnail));
+      }
+      return newsList;
+    } catch (RuntimeException e) {
+      // An index or a length out of bounds, the file is damaged
+      return null;
+    }
+  }
+
+  // Helper methods
+
+  private static int indexOf(String string, List<String> strings, Map<String, Integer> indexes) {
+    Integer index = indexes.get(string);
+    if (index == null) {
+      index = strings.size();
+      strings.add(string);
+      indexes.put(string, index);
+    }
+    return index;
+  }
+
+  /**
+   * Read a count of entries at least {@param entrySize} bytes each, checking that they fit in
+   * what is left of {@param buffer}.
+   */
+  private static int readCount(ByteBuffer buffer, int entrySize) {
+    int count = buffer.getInt();
+    if (count < 0 || count > buffer.remaining() / entrySize) {
+      throw new IllegalStateException("Bad count " + count);
+    }
+    return count;
+  }
+
+  private static String readString(ByteBuffer buffer, byte[] scratch) {
+    int length = buffer.getInt();
+    byte[] bytes = length <= scratch.length ? scratch : new byte[length];
+    buffer.get(bytes, 0, length);
+    return new String(bytes, 0, length, StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,147 @@
+package com.example.forksnews;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * The latest {@link Feed} snapshot of every feed loaded, shared by the whole process.
+ * <p>
+ * Readers take the current snapshot with a single volatile read and never lock. Writers build the
+ * next snapshot on their own thread and publish it by swapping the map of feeds, copied on every
+ * write, so a reader holding the old map or an old feed is never disturbed. Writes that race are
+ * retried against the snapshot that won. Only the feeds published most recently are kept.
+ * <p>
+ * The store is the first {@link CacheManager} tier to go under memory pressure. A trim drops the
+ * least recently published feeds, but never the feed on screen, which later pages are appended
+ * to.
+ */
+public final class FeedStore implements CacheManager.Tier {
+
+  // How many feeds are kept, older ones are rebuilt from the network or the database
+  private static final int MAX_FEEDS = 16;
+  // How many pages a feed keeps in its related strip before the oldest are dropped
+  public static final int MAX_RESIDENT_PAGES = 5;
+
+  private static final FeedStore INSTANCE = new FeedStore(MAX_FEEDS);
+
+  /**
+   * Builds the next snapshot of a feed from the current one.
+   */
+  public interface Update {
+
+    /**
+     * @param current The current snapshot, or null if there is none
+     * @return The next snapshot, or {@param current} to leave the feed as it is
+     */
+    Feed apply(Feed current);
+  }
+
+  private final int maxFeeds;
+  // the feeds by key, least recently published first, never modified once published
+  private final AtomicReference<Map<String, Feed>> feeds =
+      new AtomicReference<>(Collections.<String, Feed>emptyMap());
+  // the key of the feed on screen, kept through trims
+  private volatile String shownKey;
+
+  FeedStore(int maxFeeds) {
+    this.maxFeeds = maxFeeds;
+  }
+
+  public static FeedStore getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * Return the current snapshot of the feed with {@param key}, or null if it is not held.
+   */
+  public Feed get(String key) {
+    return feeds.get().get(key);
+  }
+
+  /**
+   * Keep the feed with {@param key} through trims from now on, as the one on screen. Feeds shown
+   * before it may be trimmed again.
+   */
+  public void setShown(String key) {
+    shownKey = key;
+  }
+
+  /**
+   * Publish {@param feed} as the current snapshot of its feed and return it.
+   */
+  public Feed publish(Feed feed) {
+    return update(feed.getKey(), current -> feed);
+  }
+
+  /**
+   * Publish the snapshot {@param update} builds from the current snapshot of the feed with
+   * {@param key}, and return the snapshot published. The update may run more than once if other
+   * writers publish meanwhile, so it must not have side effects.
+   */
+  public Feed update(String key, Update update) {
+    while (true) {
+      Map<String, Feed> current = feeds.get();
+      Feed previous = current.get(key);
+      Feed next = update.apply(previous);
+      if (next == previous) {
+        return previous;
+      }
+
+      Map<String, Feed> copy = new LinkedHashMap<>(current);
+      copy.remove(key);
+      if (next != null) {
+        copy.put(key, next);
+      }
+      Iterator<String> eldest = copy.keySet().iterator();
+      while (copy.size() > maxFeeds) {
+        eldest.next();
+        eldest.remove();
+      }
+      if (feeds.compareAndSet(current, Collections.unmodifiableMap(copy))) {
+        return next;
+      }
+    }
+  }
+
+  @Override
+  public long byteSize() {
+    long size = 0;
+    for (Feed feed : feeds.get().values()) {
+      size += feed.byteSize();
+    }
+    return size;
+  }
+
+  /**
+   * Drop the least recently published feeds until the rest take at most {@param maxBytes}. The
+   * feed on screen is kept even past it.
+   */
+  @Override
+  public void trimToSize(long maxBytes) {
+    while (true) {
+      Map<String, Feed> current = feeds.get();
+      String shown = shownKey;
+      long size = 0;
+      for (Feed feed : current.values()) {
+        size += feed.byteSize();
+      }
+
+      Map<String, Feed> copy = new LinkedHashMap<>(current);
+      Iterator<Feed> eldest = copy.values().iterator();
+      while (size > maxBytes && eldest.hasNext()) {
+        Feed feed = eldest.next();
+        if (!feed.getKey().equals(shown)) {
+          size -= feed.byteSize();
+          eldest.remove();
+        }
+      }
+      if (copy.size() == current.size()
+          || feeds.compareAndSet(current, Collections.unmodifiableMap(copy))) {
+        return;
+      }
+    }
+  }
+}
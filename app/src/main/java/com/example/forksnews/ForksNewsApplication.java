@@ -0,0 +1,30 @@
+package com.example.forksnews;
+
+import android.app.Application;
+import java.io.File;
+
+/**
+ * Sets up what every component of the process shares, whether it was started for the UI or for
+ * background work.
+ */
+public class ForksNewsApplication extends Application {
+
+  private static final String HTTP_CACHE_DIR = "http";
+  private static final long HTTP_CACHE_SIZE = 10 * 1024 * 1024; // 10 MiB
+  private static final long HTTP_CACHE_MAX_AGE = 5 * 60 * 1000; // 5 minutes
+  private static final long HTTP_CACHE_STALE_WHILE_REVALIDATE = 24 * 60 * 60 * 1000; // 1 day
+
+  @Override
+  public void onCreate() {
+    super.onCreate();
+
+    HttpCache.install(new File(getCacheDir(), HTTP_CACHE_DIR), HTTP_CACHE_SIZE,
+        HTTP_CACHE_MAX_AGE, HTTP_CACHE_STALE_WHILE_REVALIDATE);
+
+    // The repository and Glide set their tiers once they are first used
+    CacheManager cacheManager = CacheManager.getInstance();
+    cacheManager.setTier(CacheManager.Kind.PREFETCHED_PAGES, FeedStore.getInstance());
+    cacheManager.setTier(CacheManager.Kind.TEXT_LAYOUTS, TextLayoutCache.getInstance());
+    registerComponentCallbacks(cacheManager);
+  }
+}
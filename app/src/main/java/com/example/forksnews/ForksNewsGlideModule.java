@@ -0,0 +1,113 @@
+package com.example.forksnews;
+
+import android.app.ActivityManager;
+import android.content.Context;
+import android.os.Build.VERSION;
+import android.os.Build.VERSION_CODES;
+import androidx.annotation.NonNull;
+import com.bumptech.glide.GlideBuilder;
+import com.bumptech.glide.annotation.GlideModule;
+import com.bumptech.glide.load.DecodeFormat;
+import com.bumptech.glide.load.engine.cache.LruResourceCache;
+import com.bumptech.glide.load.engine.cache.MemorySizeCalculator;
+import com.bumptech.glide.load.resource.bitmap.DownsampleStrategy;
+import com.bumptech.glide.module.AppGlideModule;
+import com.bumptech.glide.request.RequestOptions;
+import com.bumptech.glide.request.target.Target;
+
+/**
+ * Sizes Glide's memory cache and bitmap pool to the device class, and sets how hero images are
+ * decoded.
+ * <p>
+ * The feed only ever shows one hero image, the thumbnail of its main news, and preloads those of
+ * the section feeds next to the chips scrolled to, so the caches are measured in screens of pixels
+ * rather than left at Glide's defaults. Low RAM devices keep a single
+ * screen of each and decode to RGB_565, which takes half the bytes per pixel of ARGB_8888.
+ * <p>
+ * The memory cache only holds images no view shows, those in use are held apart from it. It is
+ * trimmed as the last {@link CacheManager} tier rather than by Glide itself, so under memory
+ * pressure the feeds and query results go before any thumbnail does.
+ */
+@GlideModule
+public final class ForksNewsGlideModule extends AppGlideModule {
+
+  private static final float MEMORY_CACHE_SCREENS = 2;
+  private static final float BITMAP_POOL_SCREENS = 3;
+  private static final float LOW_RAM_SCREENS = 1;
+
+  @Override
+  public void applyOptions(@NonNull Context context, @NonNull GlideBuilder builder) {
+    boolean lowRam = isLowRamDevice(context);
+
+    MemorySizeCalculator calculator = new MemorySizeCalculator.Builder(context)
+        .setMemoryCacheScreens(lowRam ? LOW_RAM_SCREENS : MEMORY_CACHE_SCREENS)
+        .setBitmapPoolScreens(lowRam ? LOW_RAM_SCREENS : BITMAP_POOL_SCREENS)
+        .build();
+    builder.setMemorySizeCalculator(calculator);
+    ThumbnailCache memoryCache = new ThumbnailCache(calculator.getMemoryCacheSize());
+    builder.setMemoryCache(memoryCache);
+    CacheManager.getInstance().setTier(CacheManager.Kind.THUMBNAILS, memoryCache);
+    builder.setDefaultRequestOptions(new RequestOptions()
+        .format(lowRam ? DecodeFormat.PREFER_RGB_565 : DecodeFormat.PREFER_ARGB_8888));
+  }
+
+  /**
+   * Return the options a hero image is loaded with into a card {@param width} pixels wide. Binding
+   * and preloading both use them, so a preloaded hero is a memory cache hit.
+   * <p>
+   * The hero is as tall as its aspect ratio makes it, so only the width bounds the decode, and it
+   * is never scaled up. The API's thumbnails are 500 pixels wide, narrower than the card on most
+   * phones, and the fitCenter ImageView scales them at draw time for free. Left to transform, Glide
+   * would fit them to the card on decode, which it also does by replacing the downsample strategy.
+   */
+  static RequestOptions heroOptions(int width) {
+    return new RequestOptions()
+        .override(width, Target.SIZE_ORIGINAL)
+        .downsample(DownsampleStrategy.AT_MOST)
+        .dontTransform();
+  }
+
+  @Override
+  public boolean isManifestParsingEnabled() {
+    // nothing is registered in the manifest, skip scanning it on startup
+    return false;
+  }
+
+  /**
+   * Glide's memory cache, trimmed only by the {@link CacheManager}.
+   */
+  private static final class ThumbnailCache extends LruResourceCache implements CacheManager.Tier {
+
+    ThumbnailCache(long maxBytes) {
+      super(maxBytes);
+    }
+
+    @Override
+    public long byteSize() {
+      return getCurrentSize();
+    }
+
+    @Override
+    public void trimToSize(long maxBytes) {
+      super.trimToSize(maxBytes);
+    }
+
+    @Override
+    public void trimMemory(int level) {
+      // trimmed in turn with the other tiers
+    }
+  }
+
+  private static boolean isLowRamDevice(Context context) {
+    ActivityManager activityManager =
+        (ActivityManager) context.getSystemService(Context.ACTIVITY_SERVICE);
+    if (activityManager == null) {
+      return false;
+    }
+    if (VERSION.SDK_INT >= VERSION_CODES.KITKAT) {
+      return activityManager.isLowRamDevice();
+    }
+    // pre-KitKat devices with a small heap are the low end of their generation
+    return activityManager.getMemoryClass() <= 32;
+  }
+}
@@ -0,0 +1,253 @@
+package com.example.forksnews;
+
+import android.net.Uri;
+import android.text.TextUtils;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+
+/**
+ * An immutable request to the Guardian Content API, built with {@link #search()}, {@link
+ * #sections()} or {@link #content(String)} and turned into a request URL with {@link #toUrl()}.
+ */
+public final class GuardianQuery {
+
+  private static final String BASE_URL = "https://content.guardianapis.com";
+  private static final String API_KEY = "9cd3ecdd-3d2b-45c1-8db1-f14ca8bdedc2";
+  private static final String SEARCH_PATH = "search";
+  private static final String SECTIONS_PATH = "sections";
+  // how many results the API returns when no page-size is given
+  private static final int DEFAULT_PAGE_SIZE = 10;
+
+  /**
+   * The orders the API can return content in.
+   */
+  public enum OrderBy {
+    NEWEST("newest"),
+    OLDEST("oldest"),
+    RELEVANCE("relevance");
+
+    private final String value;
+
+    OrderBy(String value) {
+      this.value = value;
+    }
+  }
+
+  private final String path;
+  private final String query;
+  private final String section;
+  private final String showFields;
+  private final String showTags;
+  private final OrderBy orderBy;
+  private final long fromDate;
+  private final int page;
+  private final int pageSize;
+
+  private GuardianQuery(Builder builder) {
+    this.path = builder.path;
+    this.query = builder.query;
+    this.section = builder.section;
+    this.showFields = builder.showFields;
+    this.showTags = builder.showTags;
+    this.orderBy = builder.orderBy;
+    this.fromDate = builder.fromDate;
+    this.page = builder.page;
+    this.pageSize = builder.pageSize;
+  }
+
+  /**
+   * Start a query against /search.
+   */
+  public static Builder search() {
+    return new Builder(SEARCH_PATH);
+  }
+
+  /**
+   * Start a query against /sections.
+   */
+  public static Builder sections() {
+    return new Builder(SECTIONS_PATH);
+  }
+
+  /**
+   * Start a query for the single item with {@param id}, such as an article.
+   */
+  public static Builder content(String id) {
+    return new Builder(id);
+  }
+
+  /**
+   * Return a builder holding everything this query asks for, to derive a query from it.
+   */
+  public Builder newBuilder() {
+    Builder builder = new Builder(path);
+    builder.query = query;
+    builder.section = section;
+    builder.showFields = showFields;
+    builder.showTags = showTags;
+    builder.orderBy = orderBy;
+    builder.fromDate = fromDate;
+    builder.page = page;
+    builder.pageSize = pageSize;
+    return builder;
+  }
+
+  /**
+   * Return how many results a page of this query holds.
+   */
+  public int getPageSize() {
+    return pageSize == 0 ? DEFAULT_PAGE_SIZE : pageSize;
+  }
+
+  /**
+   * Return the key of the feed this query reads: everything it asks for except the page and the
+   * from-date, which only select a part of the feed.
+   */
+  public String getFeedKey() {
+    return newBuilder().page(0).fromDate(0).build().toUrl(false);
+  }
+
+  /**
+   * Return the request URL, including the API key.
+   */
+  public String toUrl() {
+    return toUrl(true);
+  }
+
+  @Override
+  public String toString() {
+    return toUrl(false);
+  }
+
+  // Helper methods
+
+  private String toUrl(boolean withApiKey) {
+    // Item ids are paths of their own, such as world/2021/apr/01/some-article
+    Uri.Builder uriBuilder = Uri.parse(BASE_URL).buildUpon().appendEncodedPath(path);
+    appendIfSet(uriBuilder, "q", query);
+    appendIfSet(uriBuilder, "section", section);
+    appendIfSet(uriBuilder, "show-fields", showFields);
+    appendIfSet(uriBuilder, "show-tags", showTags);
+    appendIfSet(uriBuilder, "order-by", orderBy == null ? null : orderBy.value);
+    appendIfSet(uriBuilder, "from-date", fromDate == 0 ? null : formatDate(fromDate));
+    appendIfSet(uriBuilder, "page", page == 0 ? null : String.valueOf(page));
+    appendIfSet(uriBuilder, "page-size", pageSize == 0 ? null : String.valueOf(pageSize));
+    if (withApiKey) {
+      uriBuilder.appendQueryParameter("api-key", API_KEY);
+    }
+    return uriBuilder.toString();
+  }
+
+  private static void appendIfSet(Uri.Builder uriBuilder, String name, String value) {
+    if (value != null) {
+      uriBuilder.appendQueryParameter(name, value);
+    }
+  }
+
+  /**
+   * Return {@param query} trimmed, lower-cased and with runs of white space collapsed, or null if
+   * nothing is left. The API matches case-insensitively, so this does not change the results.
+   */
+  public static String normalizeQuery(String query) {
+    if (query == null) {
+      return null;
+    }
+    String normalized = query.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    return normalized.isEmpty() ? null : normalized;
+  }
+
+  /**
+   * Format {@param epochMillis} as an ISO 8601 UTC date-time, the way the API expects dates.
+   */
+  private static String formatDate(long epochMillis) {
+    SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss'Z'", Locale.ROOT);
+    format.setTimeZone(TimeZone.getTimeZone("UTC"));
+    return format.format(new Date(epochMillis));
+  }
+
+  /**
+   * Builds a {@link GuardianQuery}. Anything left unset is left out of the request, so the API's
+   * default applies.
+   */
+  public static final class Builder {
+
+    private final String path;
+    private String query;
+    private String section;
+    private String showFields;
+    private String showTags;
+    private OrderBy orderBy;
+    private long fromDate;
+    private int page;
+    private int pageSize;
+
+    private Builder(String path) {
+      this.path = path;
+    }
+
+    /**
+     * Match content containing {@param query}. The query is normalized first, so queries that
+     * only differ in case or white space are the same request and share their cached results.
+     */
+    public Builder query(String query) {
+      this.query = normalizeQuery(query);
+      return this;
+    }
+
+    /**
+     * Match content in the section with the id {@param section}.
+     */
+    public Builder section(String section) {
+      this.section = section;
+      return this;
+    }
+
+    /**
+     * Add the given fields, such as thumbnail or bodyText, to every result.
+     */
+    public Builder showFields(String... fields) {
+      this.showFields = fields.length == 0 ? null : TextUtils.join(",", fields);
+      return this;
+    }
+
+    /**
+     * Add the tags of the given types, such as contributor, to every result.
+     */
+    public Builder showTags(String... tags) {
+      this.showTags = tags.length == 0 ? null : TextUtils.join(",", tags);
+      return this;
+    }
+
+    public Builder orderBy(OrderBy orderBy) {
+      this.orderBy = orderBy;
+      return this;
+    }
+
+    /**
+     * Match only content published at or after {@param epochMillis}, or any content if it is 0.
+     */
+    public Builder fromDate(long epochMillis) {
+      this.fromDate = epochMillis;
+      return this;
+    }
+
+    /**
+     * Ask for the 1-based {@param page}, or the API's first page if it is 0.
+     */
+    public Builder page(int page) {
+      this.page = page;
+      return this;
+    }
+
+    public Builder pageSize(int pageSize) {
+      this.pageSize = pageSize;
+      return this;
+    }
+
+    public GuardianQuery build() {
+      return new GuardianQuery(this);
+    }
+  }
+}
@@ -0,0 +1,451 @@
+package com.example.forksnews;
+
+import static com.example.forksnews.MainActivity.LOG_TAG;
+
+import android.util.Log;
+import androidx.annotation.VisibleForTesting;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Persistent cache of HTTP response bodies and their validators (ETag and Last-Modified), keyed by
+ * the normalized request URL.
+ * <p>
+ * An entry younger than {@code maxAge} is served without touching the network. Up to {@code
+ * staleWhileRevalidate} past that it is still served, but should be revalidated in the
+ * background. Older entries are revalidated with a conditional request before they are used. The
+ * cache evicts least recently used entries once it grows past {@code maxSize} bytes.
+ */
+public final class HttpCache {
+
+  private static final String META_SUFFIX = ".meta";
+  private static final String BODY_SUFFIX = ".body";
+  private static final String TEMP_SUFFIX = ".tmp";
+  private static final String API_KEY_PARAM = "api-key";
+
+  private static HttpCache installed;
+
+  private final File directory;
+  private final long maxSize;
+  private final long maxAge;
+  private final long staleWhileRevalidate;
+  private final Set<String> revalidating = new HashSet<>();
+
+  private HttpCache(File directory, long maxSize, long maxAge, long staleWhileRevalidate) {
+    this.directory = directory;
+    this.maxSize = maxSize;
+    this.maxAge = maxAge;
+    this.staleWhileRevalidate = staleWhileRevalidate;
+  }
+
+  /**
+   * Install the process wide cache used by {@link QueryUtils}.
+   *
+   * @param directory            Where entries are stored, usually under the app's cache dir
+   * @param maxSize              The size in bytes past which least recently used entries go
+   * @param maxAge               How long in milliseconds an entry is served without revalidation
+   * @param staleWhileRevalidate How long in milliseconds past maxAge a stale entry may be served
+   *                             while it is revalidated in the background
+   */
+  public static synchronized HttpCache install(File directory, long maxSize, long maxAge,
+      long staleWhileRevalidate) {
+    if (installed == null || !installed.directory.equals(directory)) {
+      if (!directory.isDirectory() && !directory.mkdirs()) {
+        Log.e(LOG_TAG, "Problem creating the HTTP cache directory " + directory);
+        return null;
+      }
+      installed = new HttpCache(directory, maxSize, maxAge, staleWhileRevalidate);
+    }
+    return installed;
+  }
+
+  /**
+   * Return the installed cache, or null if none has been installed.
+   */
+  public static synchronized HttpCache getInstalled() {
+    return installed;
+  }
+
+  /**
+   * Put back a cache returned by {@link #getInstalled()}, or none.
+   */
+  @VisibleForTesting
+  static synchronized void setInstalled(HttpCache cache) {
+    installed = cache;
+  }
+
+  /**
+   * Return the cache key for {@param url}: the URL with its host lower-cased, its query parameters
+   * sorted and the api-key parameter stripped.
+   */
+  static String normalize(URL url) {
+    StringBuilder normalized = new StringBuilder()
+        .append(url.getProtocol().toLowerCase(Locale.ROOT))
+        .append("://")
+        .append(url.getHost().toLowerCase(Locale.ROOT));
+    if (url.getPort() != -1 && url.getPort() != url.getDefaultPort()) {
+      normalized.append(':').append(url.getPort());
+    }
+    normalized.append(url.getPath().isEmpty() ? "/" : url.getPath());
+
+    String query = url.getQuery();
+    if (query != null && !query.isEmpty()) {
+      List<String> kept = new ArrayList<>();
+      for (String param : query.split("&")) {
+        if (!param.isEmpty() && !param.startsWith(API_KEY_PARAM + "=")
+            && !param.equals(API_KEY_PARAM)) {
+          kept.add(param);
+        }
+      }
+      Collections.sort(kept);
+      for (int i = 0; i < kept.size(); i++) {
+        normalized.append(i == 0 ? '?' : '&').append(kept.get(i));
+      }
+    }
+    return normalized.toString();
+  }
+
+  /**
+   * Return the entry stored for {@param url}, or null if there is none.
+   */
+  public synchronized Entry get(URL url) {
+    String key = normalize(url);
+    File metaFile = new File(directory, fileName(key) + META_SUFFIX);
+    File bodyFile = new File(directory, fileName(key) + BODY_SUFFIX);
+    if (!metaFile.isFile() || !bodyFile.isFile()) {
+      return null;
+    }
+
+    try (DataInputStream in = new DataInputStream(new FileInputStream(metaFile))) {
+      String storedKey = in.readUTF();
+      String etag = readNullableUTF(in);
+      String lastModified = readNullableUTF(in);
+      long validatedAt = in.readLong();
+      if (!storedKey.equals(key)) {
+        return null;
+      }
+      // Mark the entry as recently used
+      bodyFile.setLastModified(System.currentTimeMillis());
+      return new Entry(key, etag, lastModified, validatedAt, bodyFile);
+    } catch (IOException e) {
+      Log.e(LOG_TAG, "Problem reading the HTTP cache entry for " + key, e);
+      remove(key);
+      return null;
+    }
+  }
+
+  /**
+   * Store the response body read from {@param body} together with its validators and return the
+   * new entry. The body is written to a temporary file first, so a failed write never replaces a
+   * good entry.
+   */
+  public Entry put(URL url, String etag, String lastModified, InputStream body)
+      throws IOException {
+    return edit(url, body).commit(etag, lastModified);
+  }
+
+  /**
+   * Start storing the response body read from {@param body} for {@param url}. Everything read
+   * through the returned {@link Editor} is written to a temporary file as it passes, so the body
+   * can be parsed while it streams in, and {@link Editor#commit} then stores the entry.
+   */
+  public Editor edit(URL url, InputStream body) throws IOException {
+    String key = normalize(url);
+    File tempBody = new File(directory, fileName(key) + BODY_SUFFIX + TEMP_SUFFIX
+        + Thread.currentThread().getId());
+    return new Editor(key, body, tempBody);
+  }
+
+  /**
+   * Record that {@param entry} was revalidated by a 304 response, optionally with new validators,
+   * and return the refreshed entry.
+   */
+  public synchronized Entry markValidated(Entry entry, String etag, String lastModified)
+      throws IOException {
+    Entry validated = new Entry(entry.key,
+        etag != null ? etag : entry.etag,
+        lastModified != null ? lastModified : entry.lastModified,
+        System.currentTimeMillis(),
+        entry.bodyFile);
+    writeMeta(validated);
+    return validated;
+  }
+
+  /**
+   * Claim the background revalidation of {@param entry}. Returns false if one is already running.
+   */
+  public synchronized boolean beginRevalidation(Entry entry) {
+    return revalidating.add(entry.key);
+  }
+
+  public synchronized void endRevalidation(Entry entry) {
+    revalidating.remove(entry.key);
+  }
+
+  /**
+   * Return the number of bytes the cached bodies take on disk.
+   */
+  public synchronized long size() {
+    long size = 0;
+    for (File file : bodyFiles()) {
+      size += file.length();
+    }
+    return size;
+  }
+
+  // Helper methods
+
+  private void writeMeta(Entry entry) throws IOException {
+    File metaFile = new File(directory, fileName(entry.key) + META_SUFFIX);
+    File tempMeta = new File(directory, fileName(entry.key) + META_SUFFIX + TEMP_SUFFIX);
+    try (DataOutputStream out = new DataOutputStream(new FileOutputStream(tempMeta))) {
+      out.writeUTF(entry.key);
+      writeNullableUTF(out, entry.etag);
+      writeNullableUTF(out, entry.lastModified);
+      out.writeLong(entry.validatedAt);
+    }
+    if (!tempMeta.renameTo(metaFile)) {
+      tempMeta.delete();
+      throw new IOException("Could not commit the HTTP cache metadata for " + entry.key);
+    }
+  }
+
+  /**
+   * Evict least recently used entries until the cache fits in {@link #maxSize}.
+   */
+  private void trimToSize() {
+    File[] bodies = bodyFiles();
+    long size = 0;
+    for (File file : bodies) {
+      size += file.length();
+    }
+    if (size <= maxSize) {
+      return;
+    }
+
+    Arrays.sort(bodies, (a, b) -> Long.compare(a.lastModified(), b.lastModified()));
+    for (File file : bodies) {
+      if (size <= maxSize) {
+        break;
+      }
+      size -= file.length();
+      String name = file.getName();
+      String prefix = name.substring(0, name.length() - BODY_SUFFIX.length());
+      file.delete();
+      new File(directory, prefix + META_SUFFIX).delete();
+    }
+  }
+
+  private void remove(String key) {
+    new File(directory, fileName(key) + META_SUFFIX).delete();
+    new File(directory, fileName(key) + BODY_SUFFIX).delete();
+  }
+
+  private File[] bodyFiles() {
+    File[] files = directory.listFiles((dir, name) -> name.endsWith(BODY_SUFFIX));
+    return files == null ? new File[0] : files;
+  }
+
+  /**
+   * Return a file system safe name for {@param key}: the hex MD5 of the key.
+   */
+  static String fileName(String key) {
+    try {
+      byte[] digest = MessageDigest.getInstance("MD5")
+          .digest(key.getBytes(StandardCharsets.UTF_8));
+      StringBuilder hex = new StringBuilder(digest.length * 2);
+      for (byte b : digest) {
+        hex.append(Character.forDigit((b >> 4) & 0xf, 16))
+            .append(Character.forDigit(b & 0xf, 16));
+      }
+      return hex.toString();
+    } catch (NoSuchAlgorithmException e) {
+      throw new AssertionError(e);
+    }
+  }
+
+  private static void writeNullableUTF(DataOutputStream out, String value) throws IOException {
+    out.writeBoolean(value != null);
+    if (value != null) {
+      out.writeUTF(value);
+    }
+  }
+
+  private static String readNullableUTF(DataInputStream in) throws IOException {
+    return in.readBoolean() ? in.readUTF() : null;
+  }
+
+  /**
+   * A response body being stored. Reading it reads the body and writes what was read to the
+   * entry. Closing it does nothing, the entry is finished by {@link #commit} or {@link #abort}.
+   */
+  public final class Editor extends FilterInputStream {
+
+    private final String key;
+    private final File tempBody;
+    private final OutputStream out;
+    private boolean done;
+
+    private Editor(String key, InputStream body, File tempBody) throws IOException {
+      super(body);
+      this.key = key;
+      this.tempBody = tempBody;
+      this.out = new FileOutputStream(tempBody);
+    }
+
+    @Override
+    public int read() throws IOException {
+      int b = super.read();
+      if (b != -1) {
+        out.write(b);
+      }
+      return b;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+      int read = super.read(buffer, offset, length);
+      if (read > 0) {
+        out.write(buffer, offset, read);
+      }
+      return read;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+      // skipped bytes still belong in the entry
+      byte[] buffer = new byte[(int) Math.min(n, 8192)];
+      int read = read(buffer, 0, buffer.length);
+      return Math.max(read, 0);
+    }
+
+    @Override
+    public boolean markSupported() {
+      return false;
+    }
+
+    @Override
+    public void close() {
+      // finished by commit() or abort()
+    }
+
+    /**
+     * Read what is left of the body, store it with its validators and return the new entry. On
+     * failure the entry is dropped and the old one, if any, is kept.
+     */
+    public Entry commit(String etag, String lastModified) throws IOException {
+      try {
+        byte[] buffer = new byte[8192];
+        while (read(buffer, 0, buffer.length) != -1) {
+          // written as it is read
+        }
+        out.close();
+      } catch (IOException e) {
+        abort();
+        throw e;
+      }
+      done = true;
+
+      synchronized (HttpCache.this) {
+        File bodyFile = new File(directory, fileName(key) + BODY_SUFFIX);
+        if (!tempBody.renameTo(bodyFile)) {
+          tempBody.delete();
+          throw new IOException("Could not commit the HTTP cache entry for " + key);
+        }
+        Entry entry = new Entry(key, etag, lastModified, System.currentTimeMillis(), bodyFile);
+        writeMeta(entry);
+        trimToSize();
+        return entry;
+      }
+    }
+
+    /**
+     * Drop the body written so far, keeping the old entry if there is one.
+     */
+    public void abort() {
+      if (done) {
+        return;
+      }
+      done = true;
+      try {
+        out.close();
+      } catch (IOException e) {
+        // deleted either way
+      }
+      tempBody.delete();
+    }
+  }
+
+  /**
+   * A cached response body and the validators it was served with.
+   */
+  public final class Entry {
+
+    private final String key;
+    private final String etag;
+    private final String lastModified;
+    private final long validatedAt;
+    private final File bodyFile;
+
+    private Entry(String key, String etag, String lastModified, long validatedAt,
+        File bodyFile) {
+      this.key = key;
+      this.etag = etag;
+      this.lastModified = lastModified;
+      this.validatedAt = validatedAt;
+      this.bodyFile = bodyFile;
+    }
+
+    public String getEtag() {
+      return etag;
+    }
+
+    public String getLastModified() {
+      return lastModified;
+    }
+
+    /**
+     * Whether the entry can be served without contacting the server.
+     */
+    public boolean isFresh() {
+      return age() < maxAge;
+    }
+
+    /**
+     * Whether the entry can be served while it is revalidated in the background.
+     */
+    public boolean isStaleWhileRevalidate() {
+      long age = age();
+      return age >= maxAge && age < maxAge + staleWhileRevalidate;
+    }
+
+    /**
+     * Open the cached response body.
+     */
+    public InputStream open() throws IOException {
+      return new FileInputStream(bodyFile);
+    }
+
+    private long age() {
+      return System.currentTimeMillis() - validatedAt;
+    }
+  }
+}
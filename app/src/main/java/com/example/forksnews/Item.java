@@ -18,4 +18,16 @@ public class Item {
   public String getUrl() {
     return url;
   }
+
+  /**
+   * Return the 64 bit FNV-1a hash of {@param id}, a stable id for adapters.
+   */
+  static long stableId(String id) {
+    long hash = 0xcbf29ce484222325L;
+    for (int i = 0; i < id.length(); i++) {
+      hash ^= id.charAt(i);
+      hash *= 0x100000001b3L;
+    }
+    return hash;
+  }
 }
@@ -1,48 +1,130 @@
 package com.example.forksnews;
 
-import android.app.LoaderManager;
-import android.app.LoaderManager.LoaderCallbacks;
 import android.content.Context;
 import android.content.Intent;
-import android.content.Loader;
+import android.graphics.drawable.Drawable;
 import android.net.ConnectivityManager;
 import android.net.NetworkInfo;
 import android.net.Uri;
+import android.os.Build.VERSION;
 import android.os.Build.VERSION_CODES;
 import android.os.Bundle;
-import android.util.Log;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.text.Editable;
+import android.text.TextWatcher;
 import android.view.View;
+import android.view.inputmethod.EditorInfo;
+import android.widget.EditText;
 import android.widget.ImageView;
 import android.widget.TextView;
+import androidx.annotation.NonNull;
 import androidx.annotation.RequiresApi;
+import androidx.annotation.VisibleForTesting;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.cardview.widget.CardView;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 import com.bumptech.glide.Glide;
+import com.bumptech.glide.ListPreloader.PreloadModelProvider;
+import com.bumptech.glide.RequestBuilder;
+import com.bumptech.glide.integration.recyclerview.RecyclerViewPreloader;
+import com.bumptech.glide.request.target.Target;
+import com.example.forksnews.NewsRepository.Priority;
+import com.example.forksnews.NewsRepository.Request;
+import com.example.forksnews.TextLayoutCache.Style;
+import java.io.FileDescriptor;
+import java.io.PrintWriter;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
-public class MainActivity extends AppCompatActivity
-    implements LoaderCallbacks<List<News>> {
+public class MainActivity extends AppCompatActivity {
 
   /* CONSTANTS */
-  // Reuse the same loader by specifying ID
-  private static final int NEWS_LOADER_ID = 1;
-  private static final String API_KEY = "9cd3ecdd-3d2b-45c1-8db1-f14ca8bdedc2";
-  private static final String BASE_URL = "https://content.guardianapis.com";
-  private static final String SITE_URL = "https://theguardian.com";
-  private static final String NEWS_REQUEST_URL = BASE_URL + "/search";
+  private static final int PAGE_SIZE = 20;
+  // Start loading the next page this many items before the end of the related strip
+  private static final int LOAD_MORE_THRESHOLD = 5;
+  // How long scrolling waits to ask again for a page that failed, doubled on every failure
+  private static final long PAGE_RETRY_DELAY = 2000; // milliseconds
+  private static final long MAX_PAGE_RETRY_DELAY = 60000; // milliseconds
+  // Recycled holders kept per list, a little over a screenful of each
+  private static final int MAX_RECYCLED_RELATED = 6;
+  private static final int MAX_RECYCLED_SECTIONS = 8;
+  // Holders kept bound just off screen, so flinging back shows them without rebinding
+  private static final int RELATED_VIEW_CACHE_SIZE = 4;
+  private static final int SECTION_VIEW_CACHE_SIZE = 6;
+  // The id of the chip showing the timeline of the loaded section feeds, no section's id
+  private static final String TIMELINE_ID = "#latest";
+  private static final String TIMELINE_URL = "https://www.theguardian.com";
+  // Load the hero images of this many section feeds past the chips in view
+  private static final int SECTION_HERO_PRELOAD_COUNT = 3;
+  // Searched while the search box is empty
+  static final String DEFAULT_SEARCH = "conspiracy";
+  // How long typing has to pause before the search box is searched
+  private static final long SEARCH_DEBOUNCE = 300; // milliseconds
+  // Shorter queries match too much to be worth a request
+  private static final int MIN_SEARCH_LENGTH = 2;
+  // Sections whose feeds are loaded up front, their chips come first
+  private static final String[] FEATURED_SECTION_IDS = {"world", "commentisfree", "sport",
+      "culture", "lifeandstyle", "technology"};
+  private static final long SECTION_FEED_TIMEOUT = 10000; // milliseconds
+  private static final long PREFETCH_INTERVAL = 3; // hours
+  private static final long PREFETCH_DAILY_BYTES = 2 * 1024 * 1024; // 2 MiB
   public static final String LOG_TAG = MainActivity.class.getSimpleName();
 
+  // Set by tests to start as if there were no network
+  private static boolean assumeOffline;
+
   /* Members */
-  private List<Section> sections;
+  private SectionAdapter sectionAdapter;
   private NewsAdapter newsAdapter;
   private TextView emptyTextView;
   private ImageView loadingIndicator;
   private RecyclerView rvRelated;
   private RecyclerView rvSection;
   private CardView mainCard;
+  private final TimeLabelTicker timeLabelTicker = new TimeLabelTicker();
+  // Shared by the horizontal lists, which tell their holders apart by layout
+  private final RecyclerView.RecycledViewPool viewPool = new RecyclerView.RecycledViewPool();
+  private NewsRepository repository;
+  // Fetches the bodies of the articles on screen ahead of them being opened
+  private ArticlePrefetcher articlePrefetcher;
+  // The stored news shown until the network answers, the first page of the search results, the
+  // page after the last one loaded and the sections with the feeds in sectionIdsToLoad
+  private Request<?> storedNewsRequest;
+  private Request<?> newsRequest;
+  private Request<?> nextPageRequest;
+  private Request<?> sectionFeedRequest;
+  // The normalized query the search results are for, and the debounced search of the search box
+  private String searchText = DEFAULT_SEARCH;
+  private EditText searchView;
+  private final Handler searchHandler = new Handler(Looper.getMainLooper());
+  private final Runnable pendingSearch = () -> {
+    if (VERSION.SDK_INT >= VERSION_CODES.O) {
+      search();
+    }
+  };
+  // Highest page shown, page in flight (0 if none) and whether the feed has run out of pages
+  private int loadedPage;
+  private int loadingPage;
+  private boolean lastPageReached;
+  // The page that failed last (0 if none), how often in a row, and the uptime until which
+  // scrolling does not ask for it again
+  private int failedPage;
+  private int pageFailures;
+  private long pageRetryAt;
+  // Whether the news on screen came from the local store rather than the network
+  private boolean showingStored;
+  // The last loaded sections and feeds, the chip shown if any, and the feeds to load
+  private SectionFeeds sectionFeeds;
+  private String selectedSectionId;
+  private final Set<String> sectionIdsToLoad =
+      new LinkedHashSet<>(Arrays.asList(FEATURED_SECTION_IDS));
 
   @Override
   protected void onCreate(Bundle savedInstanceState) {
@@ -52,8 +134,14 @@ public class MainActivity extends AppCompatActivity
     // Set up header
     findViews();
 
+    setUpViewPool();
+
+    setUpTextLayouts();
+
     setTextView(R.id.title_header, R.string.title_header);
 
+    setUpSearch();
+
     setUpSections();
 
     setUpLoadingView();
@@ -62,14 +150,23 @@ public class MainActivity extends AppCompatActivity
 
     setUpEmptyView();
 
-    if (setUpNetwork()) {
-      LoaderManager loaderManager = getLoaderManager();
+    repository = NewsRepository.getInstance(this);
+    articlePrefetcher = new ArticlePrefetcher(repository, rvRelated);
+    // Show the feed as it was last shown, or else whatever is stored, while the network catches up
+    if (VERSION.SDK_INT >= VERSION_CODES.O) {
+      showSnapshot();
+      storedNewsRequest = repository.loadStored(PAGE_SIZE, this::onStoredNewsLoaded);
+    }
 
-      Log.i(LOG_TAG, "TEST: calling initLoader()");
-      loaderManager.initLoader(NEWS_LOADER_ID, null, this);
-    } else {
+    if (setUpNetwork()) {
+      loadFirstPage();
+      loadSectionFeeds(Priority.LOW);
+    } else if (!showingStored) {
+      // Stored news still to come replace the message, they are better than nothing
       setUpNoInternetView();
     }
+
+    schedulePrefetch();
   }
 
   private void setUpLoadingView() {
@@ -81,38 +178,174 @@ public class MainActivity extends AppCompatActivity
   private void findViews() {
     rvSection = findViewById(R.id.section_rv);
     rvRelated = findViewById(R.id.related_rv);
+    searchView = findViewById(R.id.search);
     loadingIndicator = findViewById(R.id.loading_indicator);
     emptyTextView = findViewById(R.id.empty);
     mainCard = findViewById(R.id.card_main);
   }
 
-//  Handles Loader
+  @Override
+  protected void onStart() {
+    super.onStart();
+    timeLabelTicker.start();
+    articlePrefetcher.start();
+  }
+
+  @Override
+  protected void onStop() {
+    timeLabelTicker.stop();
+    articlePrefetcher.stop();
+    super.onStop();
+  }
+
+  @Override
+  protected void onDestroy() {
+    // Across a configuration change the new activity asks for the same data at once, so let the
+    // fetches finish for it rather than starting them over
+    searchHandler.removeCallbacks(pendingSearch);
+    boolean keepFetching = isChangingConfigurations();
+    release(storedNewsRequest, keepFetching);
+    release(newsRequest, keepFetching);
+    release(nextPageRequest, keepFetching);
+    release(sectionFeedRequest, keepFetching);
+    super.onDestroy();
+  }
 
   /**
-   * Set up and return a {@link Loader} for a given ID
+   * Add the traced span percentiles and the cache usage to {@code adb shell dumpsys activity}.
    */
   @Override
-  public Loader<List<News>> onCreateLoader(int i, Bundle bundle) {
-    Log.i(LOG_TAG, "TEST: onCreateLoader() called");
+  public void dump(String prefix, FileDescriptor fd, PrintWriter writer, String[] args) {
+    super.dump(prefix, fd, writer, args);
+    Tracer.dump(prefix, writer);
+    CacheManager.getInstance().dump(prefix, writer);
+  }
+
+//  Handles News
 
-    Uri.Builder uriBuilder = Uri.parse(NEWS_REQUEST_URL).buildUpon();
-    uriBuilder.appendQueryParameter("q", "conspiracy");
-    uriBuilder.appendQueryParameter("show-fields", "thumbnail");
-    uriBuilder.appendQueryParameter("show-tags", "contributor");
-    uriBuilder.appendQueryParameter("api-key", API_KEY);
+  /**
+   * Load the first page of the search results, replacing any load of it in flight.
+   */
+  private void loadFirstPage() {
+    release(newsRequest, false);
+    newsRequest = repository.fetchPage(searchQuery(searchText, 1), 1, Priority.HIGH, feed -> {
+      if (VERSION.SDK_INT >= VERSION_CODES.O) {
+        onFeedLoaded(1, feed);
+      }
+    });
+  }
+
+  /**
+   * Return the query for the given page of the results for {@param text}, newest first.
+   */
+  static GuardianQuery searchQuery(String text, int page) {
+    return GuardianQuery.search()
+        .query(text)
+        .showFields("thumbnail")
+        .showTags("contributor")
+        .orderBy(GuardianQuery.OrderBy.NEWEST)
+        .page(page)
+        .pageSize(PAGE_SIZE)
+        .build();
+  }
+
+  /**
+   * Return the query every section feed is built from by setting its section.
+   */
+  private static GuardianQuery sectionFeedQuery() {
+    return GuardianQuery.search()
+        .showFields("thumbnail")
+        .showTags("contributor")
+        .orderBy(GuardianQuery.OrderBy.NEWEST)
+        .pageSize(PAGE_SIZE)
+        .build();
+  }
+
+  /**
+   * Return the query for the feed of the section with {@param sectionId}.
+   */
+  static GuardianQuery sectionFeedQuery(String sectionId) {
+    return sectionFeedQuery().newBuilder().section(sectionId).build();
+  }
 
-    System.out.println(uriBuilder.toString());
-    return new NewsLoader(this, uriBuilder.toString());
+  /**
+   * Keep the first search page and the featured section feeds prefetched in the background.
+   */
+  private void schedulePrefetch() {
+    PrefetchWorker.schedule(this, DEFAULT_SEARCH, FEATURED_SECTION_IDS, PREFETCH_INTERVAL,
+        PREFETCH_DAILY_BYTES);
   }
 
   /**
-   *
+   * Bind the snapshot of the first page saved by the last run, if it is of the feed to be shown.
    */
   @RequiresApi(api = VERSION_CODES.O)
-  @Override
-  public void onLoadFinished(Loader<List<News>> loader, List<News> newsList) {
-    Log.i(LOG_TAG, "TEST: onLoadFinished() called");
+  private void showSnapshot() {
+    Feed snapshot = repository.readSnapshot(searchQuery(searchText, 1));
+    if (snapshot != null && !snapshot.isEmpty()) {
+      showingStored = true;
+      showFeed(snapshot);
+    }
+  }
+
+  @RequiresApi(api = VERSION_CODES.O)
+  private void onStoredNewsLoaded(Feed feed) {
+    // Stored news only stand in until the network has delivered, and the feed snapshot is a
+    // better stand-in for it
+    if (loadedPage == 0 && selectedSectionId == null && !showingStored
+        && feed != null && !feed.isEmpty()) {
+      showingStored = true;
+      showFeed(feed);
+    }
+  }
+
+  /**
+   * Show {@param feed} as delivered for {@param page} of the search results, or null if the page
+   * failed to load.
+   */
+  @RequiresApi(api = VERSION_CODES.O)
+  private void onFeedLoaded(int page, Feed feed) {
+    if (page > 1) {
+      // Show the feed with the page appended, ignoring re-deliveries of old pages
+      if (page == loadingPage) {
+        loadingPage = 0;
+        if (feed == null) {
+          onPageFailed(page);
+        } else {
+          failedPage = 0;
+          loadedPage = feed.getLoadedPage();
+          lastPageReached = feed.isComplete();
+          showFeed(feed);
+        }
+      }
+      return;
+    }
+    // A held first page comes with the pages appended to it since
+    loadedPage = feed == null ? 0 : feed.getLoadedPage();
+    loadingPage = 0;
+    lastPageReached = feed != null && feed.isComplete();
+    failedPage = 0;
+
+    if (selectedSectionId != null) {
+      // The strip shows a section, this feed comes back when the chip is deselected
+      return;
+    }
+    if (feed != null && !feed.isEmpty()) {
+      showingStored = false;
+      showFeed(feed);
+    } else if (!showingStored) {
+      // Keep stored news on screen rather than replacing them with nothing
+      newsAdapter.clear();
+      setUpEmptyView();
+    }
+  }
 
+  /**
+   * Show the main news of {@param feed} on the main card and its related news in the related
+   * strip.
+   */
+  @RequiresApi(api = VERSION_CODES.O)
+  private void showFeed(Feed feed) {
     // Hide loading indicator because the data has been loaded
     loadingIndicator.setVisibility(View.GONE);
     emptyTextView.setVisibility(View.GONE);
@@ -121,24 +354,111 @@ public class MainActivity extends AppCompatActivity
     // Set empty state text to display "No news found."
     emptyTextView.setText(getString(R.string.no_news));
 
-    // Update UI
-    newsAdapter.clear();
+    // Trims keep the feed on screen in the store, so later pages can still be appended to it
+    FeedStore.getInstance().setShown(feed.getKey());
 
-    if (newsList != null && !newsList.isEmpty()) {
-      setUpMain(newsList.remove(0));
-      newsAdapter.addAll(newsList);
-    } else {
-      setUpEmptyView();
+    // Update UI, the snapshot's lists never change so they are bound without copying
+    setUpMain(feed.getMain());
+    newsAdapter.setNews(feed.getRelated());
+    articlePrefetcher.onFeedShown(feed.getMain());
+  }
+
+//  Handles section feeds
+
+  /**
+   * Load the sections and the feeds in {@link #sectionIdsToLoad}, replacing any load of them in
+   * flight.
+   */
+  private void loadSectionFeeds(Priority priority) {
+    release(sectionFeedRequest, false);
+    sectionFeedRequest = repository.fetchSectionFeeds(GuardianQuery.sections().build(),
+        sectionFeedQuery(), sectionIdsToLoad, SECTION_FEED_TIMEOUT, priority, data -> {
+          if (VERSION.SDK_INT >= VERSION_CODES.O) {
+            onSectionFeedsLoaded(data);
+          }
+        });
+  }
+
+  @RequiresApi(api = VERSION_CODES.O)
+  private void onSectionFeedsLoaded(SectionFeeds data) {
+    sectionFeedRequest = null;
+    if (data == null) {
+      // keep showing the sections already loaded
+      return;
+    }
+    sectionFeeds = data;
+    sectionAdapter.setSections(sectionChips(data));
+
+    Feed feed = selectedSectionId == null ? null : sectionFeed(selectedSectionId);
+    if (feed != null && !feed.isEmpty()) {
+      showFeed(feed);
     }
   }
 
   /**
-   * Clear out existing data
+   * Show the feed of the section with {@param sectionId} in place of the search results, or the
+   * search results again if it is null. Feeds that are not loaded yet, or whose load failed or
+   * timed out, are loaded first.
    */
-  @Override
-  public void onLoaderReset(Loader<List<News>> loader) {
-    Log.i(LOG_TAG, "TEST: onLoaderReset() called");
-    newsAdapter.clear();
+  @RequiresApi(api = VERSION_CODES.O)
+  private void selectSection(String sectionId) {
+    selectedSectionId = sectionId;
+    sectionAdapter.setSelectedId(sectionId);
+    // The strip no longer shows the page being loaded
+    release(nextPageRequest, false);
+    nextPageRequest = null;
+    loadingPage = 0;
+
+    if (sectionId == null) {
+      loadFirstPage();
+      return;
+    }
+
+    Feed feed = sectionFeed(sectionId);
+    if (feed != null && !feed.isEmpty()) {
+      showFeed(feed);
+    } else if (feed == null) {
+      // A load in flight that already asks for the section brings it, and any load the timeline
+      boolean added = !TIMELINE_ID.equals(sectionId) && sectionIdsToLoad.add(sectionId);
+      if (added || sectionFeedRequest == null) {
+        loadSectionFeeds(Priority.HIGH);
+      }
+    }
+  }
+
+  /**
+   * Return the chips for {@param data}: the sections, after the timeline of their loaded feeds if
+   * any loaded.
+   */
+  private List<Section> sectionChips(SectionFeeds data) {
+    if (data.getTimeline().isEmpty()) {
+      return data.getSections();
+    }
+    List<Section> chips = new ArrayList<>(data.getSections().size() + 1);
+    chips.add(new Section(TIMELINE_ID, getString(R.string.timeline_section), TIMELINE_URL));
+    chips.addAll(data.getSections());
+    return chips;
+  }
+
+  /**
+   * Return the loaded feed of the section with {@param sectionId}, or of the timeline chip, or
+   * null if it is not loaded. A feed the store dropped under memory pressure is built again from
+   * the last section feeds.
+   */
+  private Feed sectionFeed(String sectionId) {
+    boolean timeline = TIMELINE_ID.equals(sectionId);
+    // The timeline is the feed of the section feed query with no section set
+    String key = (timeline ? sectionFeedQuery() : sectionFeedQuery(sectionId)).getFeedKey();
+    Feed feed = FeedStore.getInstance().get(key);
+    if (feed == null && sectionFeeds != null) {
+      List<News> newsList = timeline
+          ? sectionFeeds.getTimeline()
+          : sectionFeeds.getFeed(sectionId);
+      if (newsList != null) {
+        feed = Feed.of(key, newsList, true);
+      }
+    }
+    return feed;
   }
 
   // Helper methods
@@ -159,20 +479,110 @@ public class MainActivity extends AppCompatActivity
 
   private void setImageView(int resourceId, String url) {
     ImageView imageView = findViewById(resourceId);
-    Glide.with(this).load(url).into(imageView);
+    heroRequest(url).into(imageView);
+  }
+
+  /**
+   * Return the request for the hero image at {@param url}, decoded for the main card.
+   */
+  private RequestBuilder<Drawable> heroRequest(String url) {
+    return Glide.with(this).load(url).apply(ForksNewsGlideModule.heroOptions(heroWidth()));
+  }
+
+  private int heroWidth() {
+    ImageView imageView = findViewById(R.id.image_main);
+    return imageView.getWidth() > 0
+        ? imageView.getWidth()
+        : getResources().getDisplayMetrics().widthPixels;
+  }
+
+  /**
+   * Search the search box once typing pauses, or at once when the keyboard's search key is hit.
+   */
+  private void setUpSearch() {
+    searchView.addTextChangedListener(new TextWatcher() {
+      @Override
+      public void beforeTextChanged(CharSequence s, int start, int count, int after) {
+      }
+
+      @Override
+      public void onTextChanged(CharSequence s, int start, int before, int count) {
+      }
+
+      @Override
+      public void afterTextChanged(Editable s) {
+        // Every keystroke restarts the wait, so only the last one in a burst is searched
+        searchHandler.removeCallbacks(pendingSearch);
+        searchHandler.postDelayed(pendingSearch, SEARCH_DEBOUNCE);
+      }
+    });
+    searchView.setOnEditorActionListener((v, actionId, event) -> {
+      if (actionId != EditorInfo.IME_ACTION_SEARCH) {
+        return false;
+      }
+      searchHandler.removeCallbacks(pendingSearch);
+      pendingSearch.run();
+      return true;
+    });
+  }
+
+  /**
+   * Show the results for the search box, or the default search if it is empty. The request for
+   * the previous query is cancelled, and results of a query searched recently are shown at once.
+   * Until the network answers, or if it cannot, matches among the articles already fetched are
+   * shown.
+   */
+  @RequiresApi(api = VERSION_CODES.O)
+  private void search() {
+    String text = GuardianQuery.normalizeQuery(searchView.getText().toString());
+    if (text == null) {
+      text = DEFAULT_SEARCH;
+    } else if (text.length() < MIN_SEARCH_LENGTH) {
+      return;
+    }
+    if (text.equals(searchText) && selectedSectionId == null) {
+      return;
+    }
+
+    searchText = text;
+    // Results of the previous query are no longer what the strip should keep
+    showingStored = false;
+    loadedPage = 0;
+    lastPageReached = false;
+    selectSection(null);
+
+    List<News> local = SearchIndex.getInstance().search(text, PAGE_SIZE);
+    if (!local.isEmpty()) {
+      showingStored = true;
+      showFeed(Feed.of("local:" + text, local, true));
+    }
+  }
+
+  /**
+   * Have titles and contributors measured for the text views they are bound to. The related
+   * cards are not inflated yet, so their metrics come from a card inflated just to read them.
+   */
+  private void setUpTextLayouts() {
+    TextLayoutCache textLayouts = TextLayoutCache.getInstance();
+    textLayouts.setTextView(Style.MAIN_TITLE, findViewById(R.id.title_main));
+    textLayouts.setTextView(Style.MAIN_CONTRIBUTOR, findViewById(R.id.contributor_main));
+    View card = getLayoutInflater().inflate(R.layout.item_related, rvRelated, false);
+    textLayouts.setTextView(Style.RELATED_TITLE, card.findViewById(R.id.title_related));
+    textLayouts.setTextView(Style.RELATED_CONTRIBUTOR,
+        card.findViewById(R.id.contributor_related));
+  }
+
+  private void setUpViewPool() {
+    viewPool.setMaxRecycledViews(R.layout.item_related, MAX_RECYCLED_RELATED);
+    viewPool.setMaxRecycledViews(R.layout.item_section, MAX_RECYCLED_SECTIONS);
   }
 
   private void setUpSections() {
-    // Inflate sections with fake data
-    sections = new ArrayList<>();
-    sections.add(new Section("News", SITE_URL + "/news"));
-    sections.add(new Section("Opinion", SITE_URL + "/opinion"));
-    sections.add(new Section("Sport", SITE_URL + "/sport"));
-    sections.add(new Section("Culture", SITE_URL + "/culture"));
-    sections.add(new Section("Lifestyle", SITE_URL + "/lifestyle"));
-
-    SectionAdapter sectionAdapter = new SectionAdapter(sections);
+    // Filled in once the sections have been fetched
+    sectionAdapter = new SectionAdapter(new ArrayList<>());
     rvSection.setAdapter(sectionAdapter);
+    rvSection.setRecycledViewPool(viewPool);
+    rvSection.setItemViewCacheSize(SECTION_VIEW_CACHE_SIZE);
 
     // set up horizontal scroller and ensure no cutoff on the right bound
     rvSection.setLayoutManager(new LinearLayoutManager(this,
@@ -184,37 +594,120 @@ public class MainActivity extends AppCompatActivity
       }
     });
 
+    // Load the hero images of the loaded section feeds next in whichever direction the chips are
+    // scrolled, so the main card is complete as soon as one is tapped
+    rvSection.addOnScrollListener(new RecyclerViewPreloader<>(Glide.with(this),
+        new PreloadModelProvider<String>() {
+          @NonNull
+          @Override
+          public List<String> getPreloadItems(int position) {
+            Feed feed = sectionFeed(sectionAdapter.getItem(position).getId());
+            if (feed == null || feed.isEmpty() || feed.getMain().getThumbnail().isEmpty()) {
+              return Collections.<String>emptyList();
+            }
+            return Collections.singletonList(feed.getMain().getThumbnail());
+          }
+
+          @Override
+          public RequestBuilder<Drawable> getPreloadRequestBuilder(@NonNull String url) {
+            return heroRequest(url);
+          }
+        },
+        (url, adapterPosition, perItemPosition) -> new int[]{heroWidth(), Target.SIZE_ORIGINAL},
+        SECTION_HERO_PRELOAD_COUNT));
+
     ItemClickSupport.addTo(rvSection).setOnItemClickListener(
         (recyclerView, position, v) -> {
-          Section currentSection = sectionAdapter.getItem(position);
-          Uri sectionUri = Uri.parse(currentSection.getUrl());
-          startActivity(new Intent(Intent.ACTION_VIEW, sectionUri));
+          // Tapping the selected chip again goes back to the search results
+          String sectionId = sectionAdapter.getItem(position).getId();
+          if (VERSION.SDK_INT >= VERSION_CODES.O) {
+            selectSection(sectionId.equals(selectedSectionId) ? null : sectionId);
+          }
         }
     );
   }
 
   private void setUpRelated() {
-    newsAdapter = new NewsAdapter(new ArrayList<>());
+    newsAdapter = new NewsAdapter();
     rvRelated.setAdapter(newsAdapter);
-    rvRelated.setLayoutManager(new LinearLayoutManager(this,
+    rvRelated.setRecycledViewPool(viewPool);
+    rvRelated.setItemViewCacheSize(RELATED_VIEW_CACHE_SIZE);
+    // Constrained on every side, so changes to the feed never resize it
+    rvRelated.setHasFixedSize(true);
+    LinearLayoutManager layoutManager = new LinearLayoutManager(this,
         LinearLayoutManager.HORIZONTAL, false) {
       @Override
       public boolean checkLayoutParams(RecyclerView.LayoutParams lp) {
         lp.width = (int) Math.round(getWidth() * .42);
         return true;
       }
+    };
+    rvRelated.setLayoutManager(layoutManager);
+    rvRelated.addOnScrollListener(new EndlessScrollListener(layoutManager, LOAD_MORE_THRESHOLD) {
+      @Override
+      public void onLoadMore() {
+        loadNextPage();
+      }
     });
 
+    timeLabelTicker.attach(rvRelated);
+
     ItemClickSupport.addTo(rvRelated).setOnItemClickListener(
         (recyclerView, position, v) -> {
-          News currentNews = newsAdapter.getItem(position);
-          Uri newsUri = Uri.parse(currentNews.getUrl());
-          startActivity(new Intent(Intent.ACTION_VIEW, newsUri));
+          openArticle(newsAdapter.getItem(position));
         }
     );
   }
 
 
+  /**
+   * Start loading the page after the last one requested, unless it is already in flight, the
+   * feed has no more pages or the page failed too recently.
+   */
+  private void loadNextPage() {
+    if (selectedSectionId != null || loadedPage == 0 || loadingPage != 0 || lastPageReached) {
+      return;
+    }
+
+    int page = loadedPage + 1;
+    if (page == failedPage && SystemClock.uptimeMillis() < pageRetryAt) {
+      // Every scroll event would ask again at once
+      return;
+    }
+    loadingPage = page;
+    nextPageRequest = repository.fetchPage(searchQuery(searchText, page), page, Priority.NORMAL,
+        feed -> {
+          if (VERSION.SDK_INT >= VERSION_CODES.O) {
+            onFeedLoaded(page, feed);
+          }
+        });
+  }
+
+  /**
+   * Hold off asking for {@param page} again, the longer the more often it has failed in a row.
+   */
+  private void onPageFailed(int page) {
+    pageFailures = page == failedPage ? pageFailures + 1 : 1;
+    failedPage = page;
+    long delay = PAGE_RETRY_DELAY << Math.min(pageFailures - 1, 5);
+    pageRetryAt = SystemClock.uptimeMillis() + Math.min(delay, MAX_PAGE_RETRY_DELAY);
+  }
+
+  /**
+   * Stop waiting on {@param request}. Unless {@param keepFetching} is set, a fetch nothing else
+   * waits on is cancelled too.
+   */
+  private static void release(Request<?> request, boolean keepFetching) {
+    if (request == null) {
+      return;
+    }
+    if (keepFetching) {
+      request.detach();
+    } else {
+      request.cancel();
+    }
+  }
+
   // TODO
   private void setUpEmptyView() {
     emptyTextView.setText(R.string.no_news);
@@ -225,6 +718,9 @@ public class MainActivity extends AppCompatActivity
 
   // TODO
   private boolean setUpNetwork() {
+    if (assumeOffline) {
+      return false;
+    }
     ConnectivityManager connectivityManager = (ConnectivityManager) getSystemService(
         Context.CONNECTIVITY_SERVICE);
     NetworkInfo networkInfo = connectivityManager.getActiveNetworkInfo();
@@ -233,24 +729,42 @@ public class MainActivity extends AppCompatActivity
 
   @RequiresApi(api = VERSION_CODES.O)
   private void setUpMain(News mainNews) {
-    setTextView(R.id.title_main, mainNews.getTitle());
+    TextLayoutCache textLayouts = TextLayoutCache.getInstance();
+    textLayouts.bind(findViewById(R.id.title_main), Style.MAIN_TITLE, mainNews.getTitle());
     setTextView(R.id.section_main, mainNews.getSection());
-    setTextView(R.id.contributor_main, mainNews.getContributor());
+    textLayouts.bind(findViewById(R.id.contributor_main), Style.MAIN_CONTRIBUTOR,
+        mainNews.getContributor());
     setTextView(R.id.datetime_main, mainNews.getLocalTime());
     setImageView(R.id.image_main, mainNews.getThumbnail());
 
-    mainCard.setOnClickListener(view -> {
-      Uri newsUri = Uri.parse(mainNews.getUrl());
-      startActivity(new Intent(Intent.ACTION_VIEW, newsUri));
-    });
+    mainCard.setOnClickListener(view -> openArticle(mainNews));
+  }
+
+  /**
+   * Open {@param news} in the {@link ReaderActivity}, or in the browser if the content API does
+   * not serve it.
+   */
+  private void openArticle(News news) {
+    if (news.hasContentId()) {
+      startActivity(ReaderActivity.newIntent(this, news));
+    } else {
+      startActivity(new Intent(Intent.ACTION_VIEW, Uri.parse(news.getUrl())));
+    }
+  }
+
+  /**
+   * Have activities started from now on act as if there were no network, or not.
+   */
+  @VisibleForTesting
+  static void setAssumeOffline(boolean offline) {
+    assumeOffline = offline;
   }
 
   // TODO
   private void setUpNoInternetView() {
-    Log.i(LOG_TAG, "TEST: setUpNoInternetView() called");
     loadingIndicator.setVisibility(View.GONE);
     emptyTextView.setText(R.string.no_internet_connection);
     emptyTextView.setVisibility(View.VISIBLE);
     mainCard.setVisibility(View.GONE);
   }
-}
\ No newline at end of file
+}
\ No newline at end of file
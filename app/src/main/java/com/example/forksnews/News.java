@@ -2,23 +2,49 @@ package com.example.forksnews;
 
 import android.os.Build.VERSION_CODES;
 import androidx.annotation.RequiresApi;
-import java.time.Duration;
 import java.time.Instant;
-import java.time.ZonedDateTime;
+import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
-import java.util.Locale;
 
+/**
+ * A Guardian article, kept compact because several pages of several sections stay in memory.
+ * <p>
+ * The publication time is held as epoch milliseconds, section names and contributors are shared
+ * through the {@link StringPool}, and links are split into one of a few well known prefixes plus
+ * the rest of the link. The Guardian id of an article is the path of its link on
+ * theguardian.com, so it is only held separately when it is not.
+ */
 public class News extends Item {
 
   private static final String LOG_TAG = News.class.getSimpleName();
 
-  private String section;
-  private String publicationDate;
-  private String contributor;
-  private String thumbnail;
-  private ZonedDateTime datetime;
+  // Most links start with one of these, the last one matches any link
+  private static final String[] URL_PREFIXES = {
+      "https://www.theguardian.com/",
+      "https://media.guim.co.uk/",
+      "https://i.guim.co.uk/img/media/",
+      ""};
+  // Rough heap costs used by byteSize()
+  private static final int NEWS_OVERHEAD = 72;
+  private static final int STRING_OVERHEAD = 40;
+
+  // null when the id is the rest of a theguardian.com link
+  private final String id;
+  private final long stableId;
+  private final String section;
+  private final String contributor;
+  private final long publishedAt;
+  private final byte urlPrefix;
+  private final String urlSuffix;
+  private final byte thumbnailPrefix;
+  private final String thumbnailSuffix;
+  // the last relative time label and the epoch millis at which it stops being right
+  private String pastLabel;
+  private long pastLabelExpiresAt;
 
   /**
+   * @param id              The Guardian article id e.g. "politics/2021/apr/01/alex-salmond", or
+   *                        null to use the link
    * @param title           The tile string of the news e.g. "Alex Salmond speech – first minister
    *                        hits back over Scottish independence – live"
    * @param section         The section name in string. e.g. Politics
@@ -28,20 +54,104 @@ public class News extends Item {
    * @param thumbnail       The link fo the thumbnail image
    */
   @RequiresApi(api = VERSION_CODES.O)
+  public News(String id, String title, String section, String publicationDate,
+      String contributor, String url, String thumbnail) {
+    this(id, title, section, parseDate(publicationDate), contributor, url, thumbnail);
+  }
+
+  /**
+   * @param publishedAt The publication time in epoch milliseconds
+   * @see #News(String, String, String, String, String, String, String)
+   */
+  public News(String id, String title, String section, long publishedAt, String contributor,
+      String url, String thumbnail) {
+    super(title, null);
+    this.section = StringPool.intern(section);
+    this.contributor = StringPool.intern(contributor);
+    this.publishedAt = publishedAt;
+    this.urlPrefix = prefixOf(url);
+    this.urlSuffix = url.substring(URL_PREFIXES[urlPrefix].length());
+    this.thumbnailPrefix = prefixOf(thumbnail);
+    this.thumbnailSuffix = thumbnail.substring(URL_PREFIXES[thumbnailPrefix].length());
+    this.id = id == null || (urlPrefix == 0 && id.equals(urlSuffix)) ? null : id;
+    this.stableId = stableId(getId());
+  }
+
+  /**
+   * An article whose id is taken from its link.
+   *
+   * @see #News(String, String, String, String, String, String, String)
+   */
+  @RequiresApi(api = VERSION_CODES.O)
   public News(String title, String section, String publicationDate, String contributor,
       String url, String thumbnail) {
-    super(title, url);
-    this.section = section;
-    this.publicationDate = publicationDate;
-    parseDate();
-    this.contributor = contributor;
-    this.thumbnail = thumbnail;
+    this(null, title, section, publicationDate, contributor, url, thumbnail);
+  }
+
+  /**
+   * An article whose id is taken from its link.
+   *
+   * @see #News(String, String, long, String, String, String, String)
+   */
+  public News(String title, String section, long publishedAt, String contributor,
+      String url, String thumbnail) {
+    this(null, title, section, publishedAt, contributor, url, thumbnail);
   }
 
   // Customized methods
 
+  /**
+   * Whether {@param other} links to the same article, without building either link.
+   */
+  public boolean isSameArticle(News other) {
+    return this.urlPrefix == other.urlPrefix && this.urlSuffix.equals(other.urlSuffix);
+  }
 
   // Getters and Setters
+
+  /**
+   * Return the Guardian article id, or the link if the article was given no id and is not on
+   * theguardian.com.
+   */
+  public String getId() {
+    if (id != null) {
+      return id;
+    }
+    return urlPrefix == 0 ? urlSuffix : getUrl();
+  }
+
+  /**
+   * Whether {@link #getId()} is an id the content API serves the article by, rather than a link
+   * to a page elsewhere.
+   */
+  public boolean hasContentId() {
+    return id != null || urlPrefix == 0;
+  }
+
+  /**
+   * Return the id only if it cannot be told from the link, for storing alongside the link.
+   */
+  String getOwnId() {
+    return id;
+  }
+
+  /**
+   * Return a number as stable as the article id, for {@link
+   * androidx.recyclerview.widget.RecyclerView.Adapter#getItemId(int)}.
+   */
+  public long getStableId() {
+    return stableId;
+  }
+
+  /**
+   * Return the estimated heap this news takes in bytes. The section and the contributor are
+   * pooled and shared with other news, so they are left out.
+   */
+  int byteSize() {
+    return NEWS_OVERHEAD + stringSize(id) + stringSize(title) + stringSize(urlSuffix)
+        + stringSize(thumbnailSuffix);
+  }
+
   public String getSection() {
     return section;
   }
@@ -51,36 +161,72 @@ public class News extends Item {
   }
 
   public String getUrl() {
-    return this.url;
+    return URL_PREFIXES[urlPrefix].concat(urlSuffix);
   }
 
   public String getThumbnail() {
-    return thumbnail;
+    return URL_PREFIXES[thumbnailPrefix].concat(thumbnailSuffix);
+  }
+
+  /**
+   * Return the publication time in epoch milliseconds.
+   */
+  public long getPublishedAt() {
+    return publishedAt;
   }
 
-  @RequiresApi(api = VERSION_CODES.O)
   public String getPast() {
-    Instant now = Instant.now();
-    Duration duration = Duration.between(this.datetime.toInstant(), now);
-    if (duration.toMinutes() < 60) {
-      return duration.toMinutes() + " minutes ago";
-    } else if (duration.toHours() < 24) {
-      return duration.toHours() + " hours ago";
-    } else {
-      return duration.toDays() + " days ago";
+    return getPast(System.currentTimeMillis());
+  }
+
+  /**
+   * Return the relative time label as seen at {@param now}, reusing the last label until it
+   * expires.
+   */
+  public String getPast(long now) {
+    if (isPastStale(now)) {
+      this.pastLabel = TimeLabels.pastLabel(this.publishedAt, now);
+      this.pastLabelExpiresAt = TimeLabels.nextChange(this.publishedAt, now);
     }
+    return this.pastLabel;
+  }
+
+  /**
+   * Whether the relative time label last returned is out of date at {@param now}.
+   */
+  public boolean isPastStale(long now) {
+    return this.pastLabel == null || now >= this.pastLabelExpiresAt;
+  }
+
+  public long getPastExpiresAt() {
+    return pastLabelExpiresAt;
   }
 
   // helper methods
   @RequiresApi(api = VERSION_CODES.O)
-  private void parseDate() {
-    this.datetime = ZonedDateTime.parse(this.publicationDate);
+  private static long parseDate(String publicationDate) {
+    return DateTimeFormatter.ISO_OFFSET_DATE_TIME.parse(publicationDate, Instant::from)
+        .toEpochMilli();
   }
 
+  private static byte prefixOf(String url) {
+    byte prefix = 0;
+    while (!url.startsWith(URL_PREFIXES[prefix])) {
+      prefix++;
+    }
+    return prefix;
+  }
+
+  private static int stringSize(String value) {
+    return value == null ? 0 : STRING_OVERHEAD + 2 * value.length();
+  }
+
+  /**
+   * Return the publication time in UTC, formatted like "4/01 16:18".
+   */
   @RequiresApi(api = VERSION_CODES.O)
   public String getLocalTime() {
-    DateTimeFormatter formatter = DateTimeFormatter.ofPattern("M/dd HH:mm",
-        Locale.getDefault());
-    return formatter.format(this.datetime);
+    return TimeLabels.localTimeFormatter()
+        .format(Instant.ofEpochMilli(this.publishedAt).atOffset(ZoneOffset.UTC));
   }
 }
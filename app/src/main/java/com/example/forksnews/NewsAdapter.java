@@ -1,20 +1,26 @@
 package com.example.forksnews;
 
 import android.content.Context;
-import android.os.Build.VERSION_CODES;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.ListView;
 import android.widget.TextView;
 import androidx.annotation.NonNull;
-import androidx.annotation.RequiresApi;
+import androidx.recyclerview.widget.AsyncListDiffer;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
+import com.example.forksnews.TextLayoutCache.Style;
+import com.example.forksnews.Tracer.Span;
+import java.util.Collections;
 import java.util.List;
 
 // Specify the custom ViewHolder which gives us access to our views
 public class NewsAdapter extends RecyclerView.Adapter<NewsAdapter.ViewHolder> {
 
+  // partial bind payload that only refreshes the relative time label
+  public static final Object PAYLOAD_TIME = new Object();
+
   public static class ViewHolder extends RecyclerView.ViewHolder {
 
     private final Context context;
@@ -40,11 +46,36 @@ public class NewsAdapter extends RecyclerView.Adapter<NewsAdapter.ViewHolder> {
     }
   }
 
-  // member variables and constructor
-  private final List<News> newsList;
+  /**
+   * Two news are the same article if they share a URL, and look the same if every field shown on
+   * the card is equal.
+   */
+  private static final DiffUtil.ItemCallback<News> DIFF_CALLBACK =
+      new DiffUtil.ItemCallback<News>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull News oldNews, @NonNull News newNews) {
+          return oldNews.isSameArticle(newNews);
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull News oldNews, @NonNull News newNews) {
+          return oldNews.getTitle().equals(newNews.getTitle())
+              && oldNews.getContributor().equals(newNews.getContributor())
+              && oldNews.getPublishedAt() == newNews.getPublishedAt();
+        }
+      };
 
-  public NewsAdapter(List<News> newsList) {
-    this.newsList = newsList;
+  // member variables and constructor
+  // diffs each submitted list against the shown one on a background thread
+  private final AsyncListDiffer<News> differ = new AsyncListDiffer<>(this, DIFF_CALLBACK);
+  private final TextLayoutCache textLayouts = TextLayoutCache.getInstance();
+  // when the adapter was created, until the first row is bound
+  private final long createdAt = Tracer.start();
+  private boolean bound;
+
+  public NewsAdapter() {
+    // A refreshed feed keeps the holders of the articles it still shows
+    setHasStableIds(true);
   }
 
 
@@ -96,18 +127,43 @@ public class NewsAdapter extends RecyclerView.Adapter<NewsAdapter.ViewHolder> {
    *                 the given position in the data set.
    * @param position The position of the item within the adapter's data set.
    */
-  @RequiresApi(api = VERSION_CODES.O)
   @Override
   public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
     // populate data into the item through holder
-    News news = newsList.get(position);
+    News news = getItem(position);
+    if (!bound) {
+      bound = true;
+      Tracer.end(Span.FIRST_BIND, createdAt);
+    }
 
     // Set up views
-    holder.relatedTitleView.setText(news.getTitle());
-    holder.relatedContributorView.setText(news.getContributor());
+    // Measured on the load thread, so this only hands over the layout
+    textLayouts.bind(holder.relatedTitleView, Style.RELATED_TITLE, news.getTitle());
+    textLayouts.bind(holder.relatedContributorView, Style.RELATED_CONTRIBUTOR,
+        news.getContributor());
     holder.relatedTimeView.setText(news.getPast());
   }
 
+  /**
+   * Rebind only the time label when every payload is {@link #PAYLOAD_TIME}, and the whole row
+   * otherwise.
+   */
+  @Override
+  public void onBindViewHolder(@NonNull ViewHolder holder, int position,
+      @NonNull List<Object> payloads) {
+    if (payloads.isEmpty()) {
+      onBindViewHolder(holder, position);
+      return;
+    }
+    for (Object payload : payloads) {
+      if (payload != PAYLOAD_TIME) {
+        onBindViewHolder(holder, position);
+        return;
+      }
+    }
+    holder.relatedTimeView.setText(getItem(position).getPast());
+  }
+
   /**
    * Returns the total number of items in the data set held by the adapter.
    *
@@ -115,22 +171,43 @@ public class NewsAdapter extends RecyclerView.Adapter<NewsAdapter.ViewHolder> {
    */
   @Override
   public int getItemCount() {
-    return newsList.size();
+    return differ.getCurrentList().size();
+  }
+
+  @Override
+  public long getItemId(int position) {
+    return getItem(position).getStableId();
+  }
+
+  /**
+   * The layout is the view type, so the cards can share a {@link RecyclerView.RecycledViewPool}
+   * with other lists without mixing up holders.
+   */
+  @Override
+  public int getItemViewType(int position) {
+    return R.layout.item_related;
   }
 
   // clear out old data
   public void clear() {
-    this.newsList.clear();
-    notifyItemRangeRemoved(0, this.newsList.size());
+    submit(Collections.<News>emptyList());
   }
 
-  // add new data
-  public void addAll(List<News> newsList) {
-    this.newsList.addAll(newsList);
-    notifyDataSetChanged();
+  /**
+   * Show {@param newsList}, such as the related news of a {@link Feed} snapshot. The list is held
+   * as it is rather than copied, so it must never change. Only the rows that actually changed are
+   * updated.
+   */
+  public void setNews(List<News> newsList) {
+    submit(newsList);
   }
 
   public News getItem(int position) {
-    return this.newsList.get(position);
+    return differ.getCurrentList().get(position);
+  }
+
+  private void submit(List<News> next) {
+    long start = Tracer.start();
+    this.differ.submitList(next, () -> Tracer.end(Span.DIFF, start));
   }
 }
@@ -0,0 +1,200 @@
+package com.example.forksnews;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+import android.database.sqlite.SQLiteStatement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Local store of parsed {@link News}, so the feed can be shown from disk before the network
+ * answers, or when there is no network at all.
+ * <p>
+ * Rows are keyed by article URL and indexed by publication time and by section. Network results
+ * are upserted as they arrive and the table is trimmed to the newest {@code maxRows} articles.
+ * <p>
+ * Articles can also be recorded as members of a feed, keyed by {@link GuardianQuery#getFeedKey()}.
+ * The newest member of a feed is the watermark its next refresh asks for newer content than.
+ */
+public class NewsDatabase extends SQLiteOpenHelper {
+
+  private static final String DATABASE_NAME = "news.db";
+  private static final int DATABASE_VERSION = 5;
+
+  private static final String TABLE_NEWS = "news";
+  private static final String COLUMN_URL = "url";
+  // the article id where the url does not give it
+  private static final String COLUMN_ID = "article_id";
+  private static final String COLUMN_TITLE = "title";
+  private static final String COLUMN_SECTION = "section";
+  private static final String COLUMN_PUBLISHED_AT = "published_at";
+  private static final String COLUMN_CONTRIBUTOR = "contributor";
+  private static final String COLUMN_THUMBNAIL = "thumbnail";
+
+  private static final String TABLE_FEED_NEWS = "feed_news";
+  private static final String COLUMN_FEED = "feed";
+
+  private static final String[] COLUMNS = {COLUMN_ID, COLUMN_TITLE, COLUMN_SECTION,
+      COLUMN_PUBLISHED_AT, COLUMN_CONTRIBUTOR, COLUMN_URL, COLUMN_THUMBNAIL};
+
+  private static NewsDatabase instance;
+
+  private NewsDatabase(Context context) {
+    super(context.getApplicationContext(), DATABASE_NAME, null, DATABASE_VERSION);
+  }
+
+  public static synchronized NewsDatabase getInstance(Context context) {
+    if (instance == null) {
+      instance = new NewsDatabase(context);
+    }
+    return instance;
+  }
+
+  @Override
+  public void onCreate(SQLiteDatabase db) {
+    db.execSQL("CREATE TABLE " + TABLE_NEWS + " ("
+        + COLUMN_URL + " TEXT PRIMARY KEY NOT NULL, "
+        + COLUMN_ID + " TEXT, "
+        + COLUMN_TITLE + " TEXT NOT NULL, "
+        + COLUMN_SECTION + " TEXT NOT NULL, "
+        + COLUMN_PUBLISHED_AT + " INTEGER NOT NULL, "
+        + COLUMN_CONTRIBUTOR + " TEXT NOT NULL, "
+        + COLUMN_THUMBNAIL + " TEXT NOT NULL)");
+    db.execSQL("CREATE INDEX news_published_at ON " + TABLE_NEWS
+        + " (" + COLUMN_PUBLISHED_AT + " DESC)");
+    db.execSQL("CREATE TABLE " + TABLE_FEED_NEWS + " ("
+        + COLUMN_FEED + " TEXT NOT NULL, "
+        + COLUMN_URL + " TEXT NOT NULL, "
+        + "PRIMARY KEY (" + COLUMN_FEED + ", " + COLUMN_URL + "))");
+  }
+
+  @Override
+  public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+    // Only a cache of network data, so start over
+    db.execSQL("DROP TABLE IF EXISTS " + TABLE_NEWS);
+    db.execSQL("DROP TABLE IF EXISTS " + TABLE_FEED_NEWS);
+    onCreate(db);
+  }
+
+  /**
+   * Insert {@param newsList}, replacing the stored copy of any article already present, and add
+   * it to the {@link SearchIndex}.
+   */
+  public void upsert(List<News> newsList) {
+    SQLiteDatabase db = getWritableDatabase();
+    SQLiteStatement statement = db.compileStatement("INSERT OR REPLACE INTO " + TABLE_NEWS + " ("
+        + COLUMN_URL + ", " + COLUMN_TITLE + ", " + COLUMN_SECTION + ", "
+        + COLUMN_PUBLISHED_AT + ", " + COLUMN_CONTRIBUTOR + ", " + COLUMN_THUMBNAIL + ", "
+        + COLUMN_ID + ") VALUES (?, ?, ?, ?, ?, ?, ?)");
+    db.beginTransaction();
+    try {
+      for (News news : newsList) {
+        statement.bindString(1, news.getUrl());
+        statement.bindString(2, news.getTitle());
+        statement.bindString(3, news.getSection());
+        statement.bindLong(4, news.getPublishedAt());
+        statement.bindString(5, news.getContributor());
+        statement.bindString(6, news.getThumbnail());
+        if (news.getOwnId() == null) {
+          statement.bindNull(7);
+        } else {
+          statement.bindString(7, news.getOwnId());
+        }
+        statement.executeInsert();
+      }
+      db.setTransactionSuccessful();
+    } finally {
+      db.endTransaction();
+      statement.close();
+    }
+    SearchIndex.getInstance().addAll(newsList);
+  }
+
+  /**
+   * Record {@param newsList}, which must already be stored, as members of {@param feed}.
+   */
+  public void addToFeed(String feed, List<News> newsList) {
+    SQLiteDatabase db = getWritableDatabase();
+    SQLiteStatement statement = db.compileStatement("INSERT OR IGNORE INTO " + TABLE_FEED_NEWS
+        + " (" + COLUMN_FEED + ", " + COLUMN_URL + ") VALUES (?, ?)");
+    db.beginTransaction();
+    try {
+      for (News news : newsList) {
+        statement.bindString(1, feed);
+        statement.bindString(2, news.getUrl());
+        statement.executeInsert();
+      }
+      db.setTransactionSuccessful();
+    } finally {
+      db.endTransaction();
+      statement.close();
+    }
+  }
+
+  /**
+   * Make {@param newsList}, which must already be stored, the only members of {@param feed}.
+   */
+  public void replaceFeed(String feed, List<News> newsList) {
+    SQLiteDatabase db = getWritableDatabase();
+    db.beginTransaction();
+    try {
+      db.delete(TABLE_FEED_NEWS, COLUMN_FEED + " = ?", new String[]{feed});
+      addToFeed(feed, newsList);
+      db.setTransactionSuccessful();
+    } finally {
+      db.endTransaction();
+    }
+  }
+
+  /**
+   * Return up to {@param limit} of the newest stored members of {@param feed}, newest first.
+   */
+  public List<News> queryFeed(String feed, int limit) {
+    return query(COLUMN_URL + " IN (SELECT " + COLUMN_URL + " FROM " + TABLE_FEED_NEWS
+        + " WHERE " + COLUMN_FEED + " = ?)", new String[]{feed}, limit);
+  }
+
+  /**
+   * Return the publication time of the newest stored member of {@param feed}, or 0 if it has none.
+   */
+  public long queryWatermark(String feed) {
+    try (Cursor cursor = getReadableDatabase().rawQuery("SELECT MAX(n." + COLUMN_PUBLISHED_AT
+        + ") FROM " + TABLE_NEWS + " n JOIN " + TABLE_FEED_NEWS + " f ON n." + COLUMN_URL
+        + " = f." + COLUMN_URL + " WHERE f." + COLUMN_FEED + " = ?", new String[]{feed})) {
+      return cursor.moveToFirst() && !cursor.isNull(0) ? cursor.getLong(0) : 0;
+    }
+  }
+
+  /**
+   * Return up to {@param limit} of the newest stored articles, newest first.
+   */
+  public List<News> queryNewest(int limit) {
+    return query(null, null, limit);
+  }
+
+  /**
+   * Delete all but the newest {@param maxRows} articles.
+   */
+  public void trim(int maxRows) {
+    getWritableDatabase().execSQL("DELETE FROM " + TABLE_NEWS + " WHERE " + COLUMN_URL
+        + " NOT IN (SELECT " + COLUMN_URL + " FROM " + TABLE_NEWS
+        + " ORDER BY " + COLUMN_PUBLISHED_AT + " DESC LIMIT " + maxRows + ")");
+    getWritableDatabase().execSQL("DELETE FROM " + TABLE_FEED_NEWS + " WHERE " + COLUMN_URL
+        + " NOT IN (SELECT " + COLUMN_URL + " FROM " + TABLE_NEWS + ")");
+  }
+
+  // helper methods
+  private List<News> query(String selection, String[] selectionArgs, int limit) {
+    List<News> newsList = new ArrayList<>();
+    try (Cursor cursor = getReadableDatabase().query(TABLE_NEWS, COLUMNS, selection,
+        selectionArgs, null, null, COLUMN_PUBLISHED_AT + " DESC", String.valueOf(limit))) {
+      while (cursor.moveToNext()) {
+        newsList.add(new News(cursor.getString(0), cursor.getString(1), cursor.getString(2),
+            cursor.getLong(3), cursor.getString(4), cursor.getString(5), cursor.getString(6)));
+      }
+    }
+    return newsList;
+  }
+}
@@ -0,0 +1,696 @@
+package com.example.forksnews;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+import android.os.SystemClock;
+import android.util.Log;
+import com.example.forksnews.QueryUtils.CachePolicy;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fetches news on a pool of background threads and delivers the results on the main thread.
+ * <p>
+ * Fetched feeds are published to the {@link FeedStore} as {@link Feed} snapshots, built on the
+ * worker thread that fetched them, and the published snapshot is what a request delivers. The same
+ * thread measures the text layout of their titles and contributors into the {@link
+ * TextLayoutCache}.
+ * <p>
+ * Fetches run highest {@link Priority} first, and in the order they were requested within a
+ * priority. Requests for the same key share one fetch, and page results are held and delivered
+ * again at once while they are fresh. Held results are kept in a bounded LRU cache keyed by
+ * request URL, and search queries are normalized before they become URLs, so going back to a
+ * recent query is served from memory. Under memory pressure the held results are trimmed as a
+ * {@link CacheManager} tier.
+ * <p>
+ * Cancelling a {@link Request} drops its callback. Once no request is waiting on a fetch, the fetch
+ * is cancelled as well: a queued fetch never runs, and a running one has its connections
+ * disconnected and its thread interrupted, so it stops downloading and parsing right away.
+ */
+public final class NewsRepository {
+
+  private static final String LOG_TAG = NewsRepository.class.getSimpleName();
+  // How many fetches run at once
+  private static final int DEFAULT_THREADS = 3;
+  // How many articles the local store keeps
+  private static final int MAX_STORED_NEWS = 500;
+  // How long a held result is delivered again without fetching
+  private static final long FRESHNESS_WINDOW = 5 * 60 * 1000; // milliseconds
+  // How many page results are held, a page of 20 news takes roughly 10 KiB
+  private static final int MAX_HELD_RESULTS = 32;
+  static final String SNAPSHOT_FILE = "feed.snapshot";
+  private static final String ARTICLE_CACHE_DIR = "articles";
+  // A body takes 5 to 30 KiB, so this keeps a few hundred articles
+  private static final long ARTICLE_CACHE_SIZE = 4 * 1024 * 1024; // 4 MiB
+  // How long a cached body is used without fetching, corrections after that are rare
+  private static final long ARTICLE_MAX_AGE = 24 * 60 * 60 * 1000; // milliseconds
+
+  /**
+   * How urgently a request is needed. Queued fetches run in this order.
+   */
+  public enum Priority {
+    // on screen now or about to be
+    HIGH,
+    // needed soon, such as the next page of a scrolled list
+    NORMAL,
+    // wanted eventually
+    LOW
+  }
+
+  /**
+   * Receives the result of a request on the main thread.
+   */
+  public interface Callback<T> {
+
+    /**
+     * @param result The result, or null if the fetch failed
+     */
+    void onResult(T result);
+  }
+
+  /**
+   * The blocking part of a fetch, run on a worker thread.
+   */
+  private interface Work<T> {
+
+    T run(CancellationToken token) throws Exception;
+  }
+
+  private static NewsRepository instance;
+
+  private final Context context;
+  private final FeedSnapshotFile snapshotFile;
+  private final ArticleCache articleCache;
+  private final FeedStore feedStore = FeedStore.getInstance();
+  private final TextLayoutCache textLayouts = TextLayoutCache.getInstance();
+  private final ThreadPoolExecutor executor;
+  private final Handler mainHandler = new Handler(Looper.getMainLooper());
+  private final AtomicLong sequence = new AtomicLong();
+  // fetches queued or running, by key, guarded by this
+  private final Map<String, Fetch<?>> inFlight = new HashMap<>();
+  // the latest result of each held key, least recently used first, guarded by this
+  private final Map<String, Held> held = new LinkedHashMap<String, Held>(16, 0.75f, true) {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<String, Held> eldest) {
+      return size() > MAX_HELD_RESULTS;
+    }
+  };
+  private final CacheManager.Tier heldTier = new CacheManager.Tier() {
+    @Override
+    public long byteSize() {
+      synchronized (NewsRepository.this) {
+        long size = 0;
+        for (Held last : held.values()) {
+          size += last.byteSize();
+        }
+        return size;
+      }
+    }
+
+    @Override
+    public void trimToSize(long maxBytes) {
+      synchronized (NewsRepository.this) {
+        long size = byteSize();
+        Iterator<Held> eldest = held.values().iterator();
+        while (size > maxBytes && eldest.hasNext()) {
+          size -= eldest.next().byteSize();
+          eldest.remove();
+        }
+      }
+    }
+  };
+
+  /**
+   * @param threads How many fetches run at once
+   */
+  public NewsRepository(Context context, int threads) {
+    this.context = context.getApplicationContext();
+    this.snapshotFile = new FeedSnapshotFile(new File(context.getFilesDir(), SNAPSHOT_FILE));
+    this.articleCache = new ArticleCache(new File(context.getCacheDir(), ARTICLE_CACHE_DIR),
+        ARTICLE_CACHE_SIZE, ARTICLE_MAX_AGE);
+    this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+        new PriorityBlockingQueue<>(), new WorkerThreadFactory());
+    indexStored();
+  }
+
+  public static synchronized NewsRepository getInstance(Context context) {
+    if (instance == null) {
+      instance = new NewsRepository(context, DEFAULT_THREADS);
+      CacheManager.getInstance().setTier(CacheManager.Kind.QUERY_RESULTS, instance.heldTier);
+    }
+    return instance;
+  }
+
+  /**
+   * Fetch {@param page} of {@param query}, store it in the {@link NewsDatabase} and deliver the
+   * feed with the page added. The first page starts the feed over, later pages are appended to
+   * it.
+   * <p>
+   * A held first page is delivered at once, as the feed the {@link FeedStore} holds for it if
+   * there is one, so pages appended since come with it. It is fetched again only once it is
+   * stale. Once the feed has been stored, the first page is refreshed by asking only for content
+   * published since the newest stored article and merging that into the stored feed. If more was
+   * published than a page holds, the stored feed is replaced by the first page instead, and if the
+   * merged feed is short of a page the first page is fetched whole, to tell a feed that has run
+   * out from one the store was trimmed under.
+   * <p>
+   * A later page that does not follow the last page of the published feed is not appended. The
+   * published feed is delivered instead, or if there is none the feed starts over from its first
+   * page.
+   */
+  public Request<Feed> fetchPage(GuardianQuery query, int page, Priority priority,
+      Callback<Feed> callback) {
+    String key = query.toUrl();
+    Request<Feed> request = new Request<>(callback);
+    synchronized (this) {
+      Held last = held.get(key);
+      if (last != null) {
+        // The held page may have been appended to or trimmed from the store since
+        Feed current = feedStore.get(query.getFeedKey());
+        deliver(request, current != null ? current : feedStore.publish((Feed) last.result));
+        if (!last.isStale()) {
+          return request;
+        }
+      }
+    }
+    // A later page is only worth holding as part of the feed it was appended to
+    return enqueue(key, priority, page == 1, request, token -> fetchFeed(query, page, token));
+  }
+
+  /**
+   * Return the first page of {@param query} as last fetched, read from its {@link
+   * FeedSnapshotFile}, or null if the snapshot is of another feed or missing. This reads the disk
+   * on the calling thread, but only a few KiB and without parsing, so the feed can be bound before
+   * the first frame.
+   */
+  public Feed readSnapshot(GuardianQuery query) {
+    try {
+      List<News> newsList = snapshotFile.read(query.getFeedKey());
+      return newsList == null ? null : Feed.of(query.getFeedKey(), newsList,
+          newsList.size() < query.getPageSize());
+    } catch (IOException e) {
+      Log.e(LOG_TAG, "Problem reading the feed snapshot", e);
+      return null;
+    }
+  }
+
+  /**
+   * Load up to {@param limit} of the newest news kept in the {@link NewsDatabase}, as a feed of a
+   * single page.
+   */
+  public Request<Feed> loadStored(int limit, Callback<Feed> callback) {
+    String key = "stored:" + limit;
+    return enqueue(key, Priority.HIGH, false, new Request<>(callback),
+        token -> publish(
+            Feed.of(key, NewsDatabase.getInstance(context).queryNewest(limit), true)));
+  }
+
+  /**
+   * Fetch the sections and the feeds of {@param sectionIds}, see {@link SectionFeedFetcher}. The
+   * feed of each section is published to the {@link FeedStore} under the feed key of {@param
+   * feedQuery} with its section set, and their timeline under the feed key of {@param feedQuery}
+   * itself, as the feed of every section.
+   */
+  public Request<SectionFeeds> fetchSectionFeeds(GuardianQuery sectionsQuery,
+      GuardianQuery feedQuery, Collection<String> sectionIds, long feedTimeout,
+      Priority priority, Callback<SectionFeeds> callback) {
+    // The caller may change its collection while the worker reads it
+    List<String> ids = new ArrayList<>(sectionIds);
+    SectionFeedFetcher fetcher = new SectionFeedFetcher(context, sectionsQuery, feedQuery, ids,
+        feedTimeout);
+    String key = sectionsQuery.toUrl() + " " + feedQuery.toUrl() + " " + ids;
+    return enqueue(key, priority, false, new Request<>(callback), token -> {
+      SectionFeeds sectionFeeds = fetcher.fetch(token);
+      if (sectionFeeds != null) {
+        for (String sectionId : ids) {
+          List<News> newsList = sectionFeeds.getFeed(sectionId);
+          if (newsList != null) {
+            String feed = feedQuery.newBuilder().section(sectionId).build().getFeedKey();
+            // Section feeds are not paged
+            publish(Feed.of(feed, newsList, true));
+          }
+        }
+        publish(Feed.of(feedQuery.getFeedKey(), sectionFeeds.getTimeline(), true));
+      }
+      return sectionFeeds;
+    });
+  }
+
+  /**
+   * Fetch the first page of {@param query} on the calling thread and store it the way {@link
+   * #fetchPage} does, merged into its feed in the {@link NewsDatabase} and saved as the snapshot,
+   * so the next start shows it at once and refreshes it with a small delta. For background jobs:
+   * a cached response past its max age is revalidated before it is used, so what is stored is
+   * current and what is downloaded is downloaded on the calling thread. Returns false if the fetch
+   * failed.
+   */
+  public boolean prefetchPage(GuardianQuery query, CancellationToken token) {
+    return fetchAndStore(query, 1, CachePolicy.REVALIDATE, token) != null;
+  }
+
+  /**
+   * Fetch the feed of a section on the calling thread, warming the {@link HttpCache} entry {@link
+   * #fetchSectionFeeds} reads it from, and store its news in the {@link NewsDatabase}. Cached
+   * responses are revalidated as by {@link #prefetchPage}. Returns false if the fetch failed.
+   *
+   * @param query The feed query with its section set
+   */
+  public boolean prefetchSectionFeed(GuardianQuery query, CancellationToken token) {
+    List<News> newsList = QueryUtils.fetchNewsData(query.toUrl(), token, CachePolicy.REVALIDATE);
+    if (newsList == null || token.isCancelled()) {
+      return false;
+    }
+    if (!newsList.isEmpty()) {
+      NewsDatabase database = NewsDatabase.getInstance(context);
+      database.upsert(newsList);
+      database.trim(MAX_STORED_NEWS);
+    }
+    return true;
+  }
+
+  /**
+   * Return the body of the article with {@param id} as HTML if it is cached and fresh, or null.
+   * This reads the disk on the calling thread, but only the one article, so a prefetched article
+   * can be shown before the first frame.
+   */
+  public String readArticle(String id) {
+    ArticleCache.Entry cached = articleCache.get(id);
+    return cached != null && cached.isFresh() ? cached.getBody() : null;
+  }
+
+  /**
+   * Deliver the body of the article with {@param id} as HTML, fetching it unless a fresh body is
+   * in the {@link ArticleCache}, or null if it cannot be had. A fetched body is stored in the
+   * cache, and a stale one is delivered if the fetch fails. Prefetching an article is loading it
+   * at {@link Priority#LOW}, and opening it while the prefetch is queued raises the prefetch.
+   */
+  public Request<String> loadArticle(String id, Priority priority, Callback<String> callback) {
+    return enqueue("article:" + id, priority, false, new Request<>(callback), token -> {
+      ArticleCache.Entry cached = articleCache.get(id);
+      if (cached != null && cached.isFresh()) {
+        return cached.getBody();
+      }
+      String body = QueryUtils.fetchArticleBody(
+          GuardianQuery.content(id).showFields("body").build().toUrl(), token);
+      if (body == null) {
+        return cached == null ? null : cached.getBody();
+      }
+      try {
+        articleCache.put(id, body);
+      } catch (IOException e) {
+        Log.e(LOG_TAG, "Problem caching the article " + id, e);
+      }
+      return body;
+    });
+  }
+
+  // Helper methods
+
+  /**
+   * Add everything stored by earlier runs to the {@link SearchIndex}, so offline search covers
+   * it. News fetched from now on is indexed as it is stored.
+   */
+  private void indexStored() {
+    enqueue("index", Priority.NORMAL, false, new Request<Void>(result -> {
+    }), token -> {
+      SearchIndex.getInstance().addAll(
+          NewsDatabase.getInstance(context).queryNewest(MAX_STORED_NEWS));
+      return null;
+    });
+  }
+
+  /**
+   * Attach {@param request} to the fetch in flight for {@param key}, raising its priority if
+   * needed, or start a new fetch running {@param work}.
+   */
+  @SuppressWarnings("unchecked")
+  private synchronized <T> Request<T> enqueue(String key, Priority priority, boolean hold,
+      Request<T> request, Work<T> work) {
+    Fetch<T> fetch = (Fetch<T>) inFlight.get(key);
+    if (fetch == null) {
+      fetch = new Fetch<>(key, priority, hold, work);
+      inFlight.put(key, fetch);
+      fetch.requests.add(request);
+      request.fetch = fetch;
+      executor.execute(fetch);
+      return request;
+    }
+
+    fetch.requests.add(request);
+    request.fetch = fetch;
+    // The queue orders fetches as they are added, so re-add one that has become more urgent
+    if (priority.compareTo(fetch.priority) < 0 && executor.remove(fetch)) {
+      fetch.priority = priority;
+      executor.execute(fetch);
+    }
+    return request;
+  }
+
+  /**
+   * Detach {@param request} from its fetch, and cancel the fetch if nothing else waits on it and
+   * {@param cancelFetch} is set.
+   */
+  private synchronized void release(Request<?> request, boolean cancelFetch) {
+    Fetch<?> fetch = request.fetch;
+    request.fetch = null;
+    if (fetch == null || !fetch.requests.remove(request)) {
+      return;
+    }
+    if (cancelFetch && fetch.requests.isEmpty()) {
+      inFlight.remove(fetch.key);
+      executor.remove(fetch);
+      fetch.cancel();
+    }
+  }
+
+  private <T> void complete(Fetch<T> fetch, T result) {
+    List<Request<T>> requests;
+    synchronized (this) {
+      if (inFlight.get(fetch.key) == fetch) {
+        inFlight.remove(fetch.key);
+      }
+      if (fetch.token.isCancelled()) {
+        return;
+      }
+      if (fetch.hold && result != null) {
+        held.put(fetch.key, new Held(result));
+      }
+      requests = new ArrayList<>(fetch.requests);
+      for (Request<T> request : requests) {
+        request.fetch = null;
+      }
+      fetch.requests.clear();
+    }
+    for (Request<T> request : requests) {
+      deliver(request, result);
+    }
+  }
+
+  private <T> void deliver(Request<T> request, T result) {
+    mainHandler.post(() -> {
+      if (!request.cancelled) {
+        request.callback.onResult(result);
+      }
+    });
+  }
+
+  /**
+   * Fetch {@param page} of {@param query} and publish the feed it makes, see {@link
+   * #fetchPage}. Returns null if the fetch failed.
+   */
+  private Feed fetchFeed(GuardianQuery query, int page, CancellationToken token) {
+    String feed = query.getFeedKey();
+    if (page > 1) {
+      Feed current = feedStore.get(feed);
+      if (current == null || current.getLoadedPage() != page - 1) {
+        // Do not download a page that could not be appended
+        return restart(query, current, token);
+      }
+    }
+
+    List<News> newsList = fetchAndStore(query, page, CachePolicy.SERVE_STALE, token);
+    if (newsList == null) {
+      return null;
+    }
+    boolean complete = newsList.size() < query.getPageSize();
+    if (page == 1) {
+      return publish(Feed.of(feed, newsList, complete));
+    }
+    Feed next = feedStore.update(feed, current ->
+        current == null || current.getLoadedPage() != page - 1
+            ? current
+            : current.withPage(page, newsList, FeedStore.MAX_RESIDENT_PAGES, complete));
+    if (next == null || next.getLoadedPage() != page) {
+      // another page landed or the feed was trimmed while this one was fetched
+      return restart(query, next, token);
+    }
+    textLayouts.precompute(next);
+    return next;
+  }
+
+  /**
+   * Return what a later page of {@param query} that does not follow {@param current} delivers:
+   * the published feed, so the caller carries on from its last page, or the first page fetched
+   * again if nothing is published.
+   */
+  private Feed restart(GuardianQuery query, Feed current, CancellationToken token) {
+    if (current != null) {
+      return current;
+    }
+    return fetchFeed(query.newBuilder().page(1).build(), 1, token);
+  }
+
+  /**
+   * Publish {@param feed} to the {@link FeedStore} and measure its text, then return it.
+   */
+  private Feed publish(Feed feed) {
+    feedStore.publish(feed);
+    textLayouts.precompute(feed);
+    return feed;
+  }
+
+  /**
+   * Fetch {@param page} of {@param query} and store it, returning the page, or null if the fetch
+   * failed. A stored first page is refreshed by asking only for what was published since, see
+   * {@link #fetchPage}. The request for the page itself uses the {@link HttpCache} as {@param
+   * cachePolicy} says.
+   */
+  private List<News> fetchAndStore(GuardianQuery query, int page, CachePolicy cachePolicy,
+      CancellationToken token) {
+    NewsDatabase database = NewsDatabase.getInstance(context);
+    String feed = query.getFeedKey();
+    // Later pages are fetched whole, they are not what a refresh brings up to date
+    long watermark = page == 1 ? database.queryWatermark(feed) : 0;
+    boolean startOver = false;
+    if (watermark != 0) {
+      String deltaUrl = query.newBuilder()
+          .orderBy(GuardianQuery.OrderBy.NEWEST)
+          .fromDate(watermark)
+          .build()
+          .toUrl();
+      // Every delta asks from another date, so caching it would only fill the cache
+      List<News> delta = QueryUtils.fetchNewsData(deltaUrl, token, CachePolicy.BYPASS);
+      if (delta == null || token.isCancelled()) {
+        return null;
+      }
+      if (delta.size() < query.getPageSize()) {
+        store(database, feed, delta, false);
+        // The delta holds only what is new, the page is the newest of the merged feed
+        List<News> newsList = mergedFirstPage(database.queryFeed(feed, query.getPageSize()),
+            query.getPageSize());
+        if (newsList != null) {
+          writeSnapshot(feed, newsList);
+          return newsList;
+        }
+      } else {
+        // A full delta may not reach back to the watermark, and merging it would leave a gap
+        // under it. The feed starts over from a first page that is current.
+        startOver = true;
+      }
+      // The delta is newer than any cached first page
+      if (cachePolicy == CachePolicy.SERVE_STALE) {
+        cachePolicy = CachePolicy.REVALIDATE;
+      }
+    }
+
+    List<News> newsList = QueryUtils.fetchNewsData(query.toUrl(), token, cachePolicy);
+    if (newsList == null || token.isCancelled()) {
+      return null;
+    }
+    store(database, feed, newsList, startOver);
+    if (page == 1 && !newsList.isEmpty()) {
+      writeSnapshot(feed, newsList);
+    }
+    return newsList;
+  }
+
+  /**
+   * Return the first page of a feed a delta was merged into, given the first {@param pageSize} of
+   * its stored members in {@param stored}, or null if they fall short of a page. Those members may
+   * have been trimmed from the store rather than have run out, and only the first page fetched
+   * whole tells which, so a short page would wrongly end the feed.
+   */
+  static List<News> mergedFirstPage(List<News> stored, int pageSize) {
+    return stored.size() < pageSize ? null : stored;
+  }
+
+  /**
+   * Store {@param newsList} as members of {@param feed}, in place of the members so far if
+   * {@param replace} is set.
+   */
+  private static void store(NewsDatabase database, String feed, List<News> newsList,
+      boolean replace) {
+    if (!newsList.isEmpty()) {
+      database.upsert(newsList);
+    }
+    if (replace) {
+      database.replaceFeed(feed, newsList);
+    } else if (!newsList.isEmpty()) {
+      database.addToFeed(feed, newsList);
+    }
+    database.trim(MAX_STORED_NEWS);
+  }
+
+  /**
+   * Save {@param newsList} as the snapshot the next start shows first.
+   */
+  private void writeSnapshot(String feed, List<News> newsList) {
+    try {
+      snapshotFile.write(feed, newsList);
+    } catch (IOException e) {
+      Log.e(LOG_TAG, "Problem writing the feed snapshot", e);
+    }
+  }
+
+  /**
+   * A request for a result, delivered to its callback unless it is cancelled first.
+   */
+  public final class Request<T> {
+
+    private final Callback<T> callback;
+    // the fetch this request waits on, guarded by NewsRepository.this
+    private Fetch<T> fetch;
+    // only read and written on the main thread
+    private boolean cancelled;
+
+    private Request(Callback<T> callback) {
+      this.callback = callback;
+    }
+
+    /**
+     * Drop the callback, and cancel the fetch if no other request waits on it. Call on the main
+     * thread.
+     */
+    public void cancel() {
+      cancelled = true;
+      release(this, true);
+    }
+
+    /**
+     * Drop the callback but let the fetch finish, so a request made for the same key soon after
+     * shares it and a held result is kept. Call on the main thread.
+     */
+    public void detach() {
+      cancelled = true;
+      release(this, false);
+    }
+  }
+
+  /**
+   * A fetch that one or more requests wait on.
+   */
+  private final class Fetch<T> implements Runnable, Comparable<Fetch<?>> {
+
+    private final String key;
+    private final boolean hold;
+    private final Work<T> work;
+    private final long order = sequence.getAndIncrement();
+    private final CancellationToken token = new CancellationToken();
+    // guarded by NewsRepository.this, only changed while the fetch is out of the queue
+    private Priority priority;
+    private final List<Request<T>> requests = new ArrayList<>();
+    // the thread running the fetch, guarded by this
+    private Thread runner;
+
+    Fetch(String key, Priority priority, boolean hold, Work<T> work) {
+      this.key = key;
+      this.priority = priority;
+      this.hold = hold;
+      this.work = work;
+    }
+
+    @Override
+    public void run() {
+      synchronized (this) {
+        if (token.isCancelled()) {
+          return;
+        }
+        runner = Thread.currentThread();
+      }
+
+      T result = null;
+      try {
+        result = work.run(token);
+      } catch (Exception e) {
+        if (!token.isCancelled()) {
+          Log.e(LOG_TAG, "Problem fetching " + key, e);
+        }
+      } finally {
+        synchronized (this) {
+          runner = null;
+          // Do not let a late cancellation interrupt the next fetch on this thread
+          Thread.interrupted();
+        }
+      }
+      complete(this, result);
+    }
+
+    void cancel() {
+      token.cancel();
+      synchronized (this) {
+        if (runner != null) {
+          runner.interrupt();
+        }
+      }
+    }
+
+    @Override
+    public int compareTo(Fetch<?> other) {
+      int byPriority = priority.compareTo(other.priority);
+      return byPriority != 0 ? byPriority : Long.compare(order, other.order);
+    }
+  }
+
+  /**
+   * A result held for delivery to later requests.
+   */
+  private static final class Held {
+
+    private final Object result;
+    private final long loadedAt = SystemClock.elapsedRealtime();
+
+    Held(Object result) {
+      this.result = result;
+    }
+
+    boolean isStale() {
+      return SystemClock.elapsedRealtime() - loadedAt >= FRESHNESS_WINDOW;
+    }
+
+    long byteSize() {
+      return result instanceof Feed ? ((Feed) result).byteSize() : 0;
+    }
+  }
+
+  /**
+   * Names the worker threads and runs them at background priority, so fetching does not compete
+   * with the UI thread.
+   */
+  private static final class WorkerThreadFactory implements ThreadFactory {
+
+    private final AtomicInteger count = new AtomicInteger();
+
+    @Override
+    public Thread newThread(Runnable runnable) {
+      return new Thread(() -> {
+        Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+        runnable.run();
+      }, "NewsRepository-" + count.incrementAndGet());
+    }
+  }
+}
@@ -0,0 +1,160 @@
+package com.example.forksnews;
+
+import static com.example.forksnews.MainActivity.LOG_TAG;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+import androidx.annotation.NonNull;
+import androidx.work.BackoffPolicy;
+import androidx.work.Constraints;
+import androidx.work.Data;
+import androidx.work.ExistingPeriodicWorkPolicy;
+import androidx.work.NetworkType;
+import androidx.work.PeriodicWorkRequest;
+import androidx.work.WorkManager;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically prefetches the news feeds in the background, so opening the app finds the HTTP cache
+ * and the {@link NewsDatabase} warm. The search feed is stored the way {@link NewsRepository}
+ * stores it, and the section feeds are left in the HTTP cache, each where the app reads it from.
+ * <p>
+ * Runs only on an unmetered network while the device is charging, retries failed runs with
+ * exponential backoff and stops fetching for the day once the daily byte budget is spent.
+ */
+public class PrefetchWorker extends Worker {
+
+  private static final String WORK_NAME = "prefetch";
+  private static final String KEY_SEARCH = "search";
+  private static final String KEY_SECTION_IDS = "section_ids";
+  private static final String KEY_DAILY_BYTES = "daily_bytes";
+
+  private static final String PREFS_NAME = "prefetch";
+  private static final String PREF_DAY = "day";
+  private static final String PREF_BYTES = "bytes";
+  private static final String PREF_SCHEDULED = "scheduled";
+
+  private static final long DAY = 24 * 60 * 60 * 1000; // milliseconds
+  private static final long BACKOFF_DELAY = 15; // minutes, doubled on every retry
+
+  private final CancellationToken token = new CancellationToken();
+
+  public PrefetchWorker(@NonNull Context context, @NonNull WorkerParameters workerParams) {
+    super(context, workerParams);
+  }
+
+  /**
+   * Schedule the periodic prefetch of the first page of the results for {@param search} and of
+   * the feeds of {@param sectionIds}, unless it is already scheduled as it is.
+   *
+   * @param interval   How often in hours to prefetch, WorkManager allows no less than 15 minutes
+   * @param dailyBytes How many bytes prefetching may download per day
+   */
+  public static void schedule(Context context, String search, String[] sectionIds, long interval,
+      long dailyBytes) {
+    Constraints constraints = new Constraints.Builder()
+        .setRequiredNetworkType(NetworkType.UNMETERED)
+        .setRequiresCharging(true)
+        .build();
+    Data input = new Data.Builder()
+        .putString(KEY_SEARCH, search)
+        .putStringArray(KEY_SECTION_IDS, sectionIds)
+        .putLong(KEY_DAILY_BYTES, dailyBytes)
+        .build();
+    PeriodicWorkRequest request = new PeriodicWorkRequest.Builder(PrefetchWorker.class,
+        interval, TimeUnit.HOURS)
+        .setConstraints(constraints)
+        .setBackoffCriteria(BackoffPolicy.EXPONENTIAL, BACKOFF_DELAY, TimeUnit.MINUTES)
+        .setInputData(input)
+        .build();
+
+    // Kept work runs with the input it was first scheduled with, so it is replaced once the input
+    // changes. Replacing it every time would run it at every start.
+    SharedPreferences prefs = prefs(context);
+    String scheduled = search + " " + Arrays.toString(sectionIds) + " " + interval + " "
+        + dailyBytes;
+    ExistingPeriodicWorkPolicy policy = scheduled.equals(prefs.getString(PREF_SCHEDULED, null))
+        ? ExistingPeriodicWorkPolicy.KEEP
+        : ExistingPeriodicWorkPolicy.REPLACE;
+    WorkManager.getInstance(context).enqueueUniquePeriodicWork(WORK_NAME, policy, request);
+    prefs.edit().putString(PREF_SCHEDULED, scheduled).apply();
+  }
+
+  @NonNull
+  @Override
+  public Result doWork() {
+    String search = getInputData().getString(KEY_SEARCH);
+    String[] sectionIds = getInputData().getStringArray(KEY_SECTION_IDS);
+    long dailyBytes = getInputData().getLong(KEY_DAILY_BYTES, 0);
+    if (search == null || sectionIds == null) {
+      return Result.success();
+    }
+
+    // The queries are built here rather than scheduled, so they follow the app when it changes
+    GuardianQuery[] queries = new GuardianQuery[1 + sectionIds.length];
+    queries[0] = MainActivity.searchQuery(search, 1);
+    for (int i = 0; i < sectionIds.length; i++) {
+      queries[i + 1] = MainActivity.sectionFeedQuery(sectionIds[i]);
+    }
+
+    NewsRepository repository = NewsRepository.getInstance(getApplicationContext());
+    boolean failed = false;
+    for (int i = 0; i < queries.length; i++) {
+      if (isStopped()) {
+        break;
+      }
+      if (bytesToday() >= dailyBytes) {
+        Log.i(LOG_TAG, "Daily prefetch budget spent, skipping the rest");
+        break;
+      }
+
+      long wireBytes = Transport.getTotalWireBytes();
+      boolean fetched = i == 0
+          ? repository.prefetchPage(queries[i], token)
+          : repository.prefetchSectionFeed(queries[i], token);
+      addBytesToday(Transport.getTotalWireBytes() - wireBytes);
+      failed |= !fetched;
+    }
+    return failed ? Result.retry() : Result.success();
+  }
+
+  @Override
+  public void onStopped() {
+    // Stop downloading at once rather than after the request in flight
+    token.cancel();
+  }
+
+  // Helper methods
+
+  /**
+   * Return the bytes prefetched today. Counts other requests running at the same time too, which
+   * errs on the side of downloading less.
+   */
+  private long bytesToday() {
+    SharedPreferences prefs = prefs();
+    return prefs.getLong(PREF_DAY, -1) == today() ? prefs.getLong(PREF_BYTES, 0) : 0;
+  }
+
+  private void addBytesToday(long bytes) {
+    prefs().edit()
+        .putLong(PREF_DAY, today())
+        .putLong(PREF_BYTES, bytesToday() + bytes)
+        .apply();
+  }
+
+  private SharedPreferences prefs() {
+    return prefs(getApplicationContext());
+  }
+
+  private static SharedPreferences prefs(Context context) {
+    return context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+  }
+
+  private static long today() {
+    return System.currentTimeMillis() / DAY;
+  }
+}
@@ -4,18 +4,27 @@ import static com.example.forksnews.MainActivity.LOG_TAG;
 
 import android.os.Build.VERSION_CODES;
 import android.text.TextUtils;
+import android.util.JsonReader;
+import android.util.JsonToken;
 import android.util.Log;
+import android.util.MalformedJsonException;
 import androidx.annotation.RequiresApi;
+import androidx.annotation.VisibleForTesting;
+import com.example.forksnews.Tracer.Span;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
 import java.net.HttpURLConnection;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
 import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
@@ -25,6 +34,28 @@ import org.json.JSONObject;
  */
 public final class QueryUtils {
 
+  // Revalidates stale cache entries that were served while stale
+  private static final Executor REVALIDATION_EXECUTOR = Executors.newSingleThreadExecutor();
+
+  // The Guardian developer key allows 12 calls a second, stay under it
+  private static final double REQUESTS_PER_SECOND = 10;
+  private static final int REQUEST_BURST = 5;
+  private static final int MAX_ATTEMPTS = 4;
+  private static final long BASE_RETRY_DELAY = 500; // milliseconds
+  private static final long MAX_RETRY_DELAY = 8000; // milliseconds
+  private static final long MAX_RETRY_AFTER = 30000; // milliseconds
+  private static final int BREAKER_FAILURE_THRESHOLD = 5;
+  private static final long BREAKER_OPEN_TIME = 30000; // milliseconds
+
+  // Shared by every request
+  private static volatile RateLimiter rateLimiter;
+  private static volatile RetryPolicy retryPolicy;
+  private static volatile CircuitBreaker circuitBreaker;
+
+  static {
+    resetPolicies();
+  }
+
   // static use only
   private QueryUtils() {
   }
@@ -33,11 +64,41 @@ public final class QueryUtils {
 
   /**
    * Query The Guardian data and return a list of {@link News} objects.
+   * <p>
+   * The response body is parsed straight off the connection's input stream, so neither the whole
+   * response {@link String} nor a {@link JSONObject} tree is ever held in memory.
    */
   @RequiresApi(api = VERSION_CODES.KITKAT)
   public static List<News> fetchNewsData(String requestUrl) {
-    Log.i(LOG_TAG, "TEST: fetchNewsData() called");
-    return extractNews(getJSONResponse(requestUrl));
+    return fetchNewsData(requestUrl, null);
+  }
+
+  /**
+   * Query The Guardian data like {@link #fetchNewsData(String)}, giving up as soon as {@param
+   * token} is cancelled.
+   */
+  @RequiresApi(api = VERSION_CODES.KITKAT)
+  public static List<News> fetchNewsData(String requestUrl, CancellationToken token) {
+    return fetchNewsData(requestUrl, token, CachePolicy.SERVE_STALE);
+  }
+
+  /**
+   * Query The Guardian data like {@link #fetchNewsData(String, CancellationToken)}, using the
+   * {@link HttpCache} as {@param cachePolicy} says.
+   */
+  @RequiresApi(api = VERSION_CODES.KITKAT)
+  public static List<News> fetchNewsData(String requestUrl, CancellationToken token,
+      CachePolicy cachePolicy) {
+    List<News> newsList = null;
+    try {
+      newsList = makeHttpRequest(createUrl(requestUrl), token, cachePolicy,
+          QueryUtils::extractNews);
+    } catch (IOException e) {
+      if (token == null || !token.isCancelled()) {
+        Log.e(LOG_TAG, "Problem making the HTTP request.", e);
+      }
+    }
+    return newsList;
   }
 
   /**
@@ -58,6 +119,7 @@ public final class QueryUtils {
       for (int i = 0; i < results.length(); i++) {
         JSONObject result = results.getJSONObject(i);
 
+        String id = result.optString("id", null);
         String title = result.getString("webTitle");
         String section = result.getString("sectionName");
         String publicationDate = result.getString("webPublicationDate");
@@ -65,7 +127,8 @@ public final class QueryUtils {
         String url = result.getString("webUrl");
         String thumbnail = result.getJSONObject("fields").getString("thumbnail");
 
-        newsList.add(new News(title, section, publicationDate, contributor, url, thumbnail));
+        newsList.add(new News(id, title, section, publicationDate, contributor, url,
+            thumbnail));
       }
     } catch (JSONException e) {
       Log.e(LOG_TAG, "Problem parsing the news JSON results", e);
@@ -74,8 +137,357 @@ public final class QueryUtils {
     return newsList;
   }
 
+  /**
+   * Return a list of {@link News} objects parsed token by token from a JSON response stream.
+   * <p>
+   * Produces the same list as {@link #extractNews(String)} for the same response: a result that is
+   * missing a required field ends the parse and the news read so far is returned.
+   */
+  public static List<News> extractNews(InputStream newsStream) throws IOException {
+    List<News> newsList = new ArrayList<>();
+
+    JsonReader reader = new JsonReader(new InputStreamReader(newsStream, StandardCharsets.UTF_8));
+    try {
+      reader.beginObject();
+      while (reader.hasNext()) {
+        if (reader.nextName().equals("response")) {
+          readResponse(reader, newsList);
+        } else {
+          reader.skipValue();
+        }
+      }
+    } catch (IllegalStateException | MalformedJsonException | MissingFieldException e) {
+      Log.e(LOG_TAG, "Problem parsing the news JSON results", e);
+    } finally {
+      reader.close();
+    }
+
+    return newsList;
+  }
+
+  // Handles Sections
+
+  /**
+   * Query The Guardian sections endpoint and return a list of {@link Section} objects.
+   */
+  public static List<Section> fetchSectionData(String requestUrl) {
+    return fetchSectionData(requestUrl, null);
+  }
+
+  /**
+   * Query The Guardian sections endpoint, giving up as soon as {@param token} is cancelled.
+   */
+  public static List<Section> fetchSectionData(String requestUrl, CancellationToken token) {
+    List<Section> sections = null;
+    try {
+      sections = makeHttpRequest(createUrl(requestUrl), token, CachePolicy.SERVE_STALE,
+          QueryUtils::extractSections);
+    } catch (IOException e) {
+      if (token == null || !token.isCancelled()) {
+        Log.e(LOG_TAG, "Problem making the HTTP request.", e);
+      }
+    }
+    return sections;
+  }
+
+  /**
+   * Return a list of {@link Section} objects parsed token by token from a sections response.
+   */
+  public static List<Section> extractSections(InputStream sectionsStream) throws IOException {
+    List<Section> sections = new ArrayList<>();
+
+    JsonReader reader = new JsonReader(
+        new InputStreamReader(sectionsStream, StandardCharsets.UTF_8));
+    try {
+      reader.beginObject();
+      while (reader.hasNext()) {
+        if (!reader.nextName().equals("response")) {
+          reader.skipValue();
+          continue;
+        }
+        reader.beginObject();
+        while (reader.hasNext()) {
+          if (reader.nextName().equals("results")) {
+            reader.beginArray();
+            while (reader.hasNext()) {
+              Section section = readSection(reader);
+              if (section != null) {
+                sections.add(section);
+              }
+            }
+            reader.endArray();
+          } else {
+            reader.skipValue();
+          }
+        }
+        reader.endObject();
+      }
+    } catch (IllegalStateException | MalformedJsonException e) {
+      Log.e(LOG_TAG, "Problem parsing the sections JSON results", e);
+    } finally {
+      reader.close();
+    }
+
+    return sections;
+  }
+
+  // Handles Articles
+
+  /**
+   * Query The Guardian for a single item and return its body, giving up as soon as {@param
+   * token} is cancelled. Returns null if the request failed or the item has no body.
+   * <p>
+   * Bodies are kept in the {@link ArticleCache}, so they skip the {@link HttpCache} rather than
+   * push feed responses out of it.
+   */
+  public static String fetchArticleBody(String requestUrl, CancellationToken token) {
+    URL url = createUrl(requestUrl);
+    if (url == null) {
+      return null;
+    }
+    String body = null;
+    try {
+      body = makeConditionalRequest(url, token, null, null, QueryUtils::extractBody);
+    } catch (IOException e) {
+      if (token == null || !token.isCancelled()) {
+        Log.e(LOG_TAG, "Problem making the HTTP request.", e);
+      }
+    }
+    return body;
+  }
+
+  /**
+   * Return the body of the item in a single item response, as HTML, parsed token by token. The
+   * body field is preferred, a plain bodyText field is escaped into HTML. Returns null if the
+   * response has neither.
+   */
+  public static String extractBody(InputStream itemStream) throws IOException {
+    String body = null;
+    String bodyText = null;
+
+    JsonReader reader = new JsonReader(new InputStreamReader(itemStream, StandardCharsets.UTF_8));
+    try {
+      // response.content.fields
+      if (enterObject(reader, "response") && enterObject(reader, "content")
+          && enterObject(reader, "fields")) {
+        while (reader.hasNext()) {
+          String name = reader.nextName();
+          if (reader.peek() == JsonToken.NULL) {
+            reader.skipValue();
+          } else if (name.equals("body")) {
+            body = reader.nextString();
+          } else if (name.equals("bodyText")) {
+            bodyText = reader.nextString();
+          } else {
+            reader.skipValue();
+          }
+        }
+      }
+    } catch (IllegalStateException | MalformedJsonException e) {
+      Log.e(LOG_TAG, "Problem parsing the item JSON result", e);
+    } finally {
+      reader.close();
+    }
+
+    if (body == null && bodyText != null) {
+      body = "<p>" + TextUtils.htmlEncode(bodyText) + "</p>";
+    }
+    return body;
+  }
+
   // Helper methods
 
+  /**
+   * Read the current object up to its field {@param name} and step into the object it holds.
+   * Returns false if there is no such field.
+   */
+  private static boolean enterObject(JsonReader reader, String name) throws IOException {
+    if (reader.peek() == JsonToken.BEGIN_OBJECT) {
+      reader.beginObject();
+    }
+    while (reader.hasNext()) {
+      if (reader.nextName().equals(name) && reader.peek() == JsonToken.BEGIN_OBJECT) {
+        reader.beginObject();
+        return true;
+      }
+      reader.skipValue();
+    }
+    return false;
+  }
+
+  /**
+   * Read a single sections result, or return null if it lacks an id, title or url.
+   */
+  private static Section readSection(JsonReader reader) throws IOException {
+    String id = null;
+    String title = null;
+    String url = null;
+
+    reader.beginObject();
+    while (reader.hasNext()) {
+      String name = reader.nextName();
+      if (reader.peek() == JsonToken.NULL) {
+        reader.skipValue();
+      } else if (name.equals("id")) {
+        id = reader.nextString();
+      } else if (name.equals("webTitle")) {
+        title = reader.nextString();
+      } else if (name.equals("webUrl")) {
+        url = reader.nextString();
+      } else {
+        reader.skipValue();
+      }
+    }
+    reader.endObject();
+
+    return id == null || title == null || url == null ? null : new Section(id, title, url);
+  }
+
+  /**
+   * Signals a result without one of the fields a {@link News} needs.
+   */
+  private static class MissingFieldException extends Exception {
+
+    MissingFieldException(String field) {
+      super("No value for " + field);
+    }
+  }
+
+  /**
+   * Read the "response" object and add each of its results to {@param newsList}.
+   */
+  private static void readResponse(JsonReader reader, List<News> newsList)
+      throws IOException, MissingFieldException {
+    reader.beginObject();
+    while (reader.hasNext()) {
+      if (reader.nextName().equals("results")) {
+        reader.beginArray();
+        while (reader.hasNext()) {
+          // A cancelled fetch interrupts its thread, stop spending CPU on its results
+          if (Thread.currentThread().isInterrupted()) {
+            throw new InterruptedIOException("Parse cancelled");
+          }
+          newsList.add(readResult(reader));
+        }
+        reader.endArray();
+      } else {
+        reader.skipValue();
+      }
+    }
+    reader.endObject();
+  }
+
+  /**
+   * Read a single result object into a {@link News}.
+   */
+  private static News readResult(JsonReader reader) throws IOException, MissingFieldException {
+    String id = null;
+    String title = null;
+    String section = null;
+    String publicationDate = null;
+    String contributor = "Anonymous";
+    String url = null;
+    String thumbnail = null;
+
+    reader.beginObject();
+    while (reader.hasNext()) {
+      String name = reader.nextName();
+      if (reader.peek() == JsonToken.NULL) {
+        reader.skipValue();
+        continue;
+      }
+      switch (name) {
+        case "id":
+          id = reader.nextString();
+          break;
+        case "webTitle":
+          title = reader.nextString();
+          break;
+        case "sectionName":
+          section = reader.nextString();
+          break;
+        case "webPublicationDate":
+          publicationDate = reader.nextString();
+          break;
+        case "webUrl":
+          url = reader.nextString();
+          break;
+        case "fields":
+          thumbnail = readThumbnail(reader);
+          break;
+        case "tags":
+          contributor = readContributor(reader);
+          break;
+        default:
+          reader.skipValue();
+      }
+    }
+    reader.endObject();
+
+    requireField(title, "webTitle");
+    requireField(section, "sectionName");
+    requireField(publicationDate, "webPublicationDate");
+    requireField(url, "webUrl");
+    requireField(thumbnail, "thumbnail");
+    long start = Tracer.start();
+    News news = new News(id, title, section, publicationDate, contributor, url, thumbnail);
+    Tracer.end(Span.MODEL_BUILD, start);
+    return news;
+  }
+
+  private static void requireField(String value, String field) throws MissingFieldException {
+    if (value == null) {
+      throw new MissingFieldException(field);
+    }
+  }
+
+  /**
+   * Read the thumbnail link out of a result's "fields" object, or null if there is none.
+   */
+  private static String readThumbnail(JsonReader reader) throws IOException {
+    String thumbnail = null;
+    reader.beginObject();
+    while (reader.hasNext()) {
+      if (reader.nextName().equals("thumbnail") && reader.peek() != JsonToken.NULL) {
+        thumbnail = reader.nextString();
+      } else {
+        reader.skipValue();
+      }
+    }
+    reader.endObject();
+    return thumbnail;
+  }
+
+  /**
+   * Streaming counterpart of {@link #getContributorFrom(JSONObject)} for a "tags" array.
+   */
+  private static String readContributor(JsonReader reader) throws IOException {
+    String contributor = null;
+    int tagCount = 0;
+    reader.beginArray();
+    while (reader.hasNext()) {
+      if (tagCount++ == 0 && reader.peek() == JsonToken.BEGIN_OBJECT) {
+        reader.beginObject();
+        while (reader.hasNext()) {
+          if (reader.nextName().equals("webTitle") && reader.peek() != JsonToken.NULL) {
+            contributor = reader.nextString();
+          } else {
+            reader.skipValue();
+          }
+        }
+        reader.endObject();
+      } else {
+        reader.skipValue();
+      }
+    }
+    reader.endArray();
+
+    if (contributor == null) {
+      return "Anonymous";
+    }
+    return tagCount > 1 ? contributor + " et al." : contributor;
+  }
+
   /**
    * Returns new URL object from the given string URL.
    */
@@ -90,48 +502,246 @@ public final class QueryUtils {
   }
 
   /**
-   * Make an HTTP request to the given URL and return a String as the response.
+   * How a request uses the installed {@link HttpCache}.
    */
-  @RequiresApi(api = VERSION_CODES.KITKAT)
-  private static String makeHttpRequest(URL url) throws IOException {
-    String jsonResponse = "";
+  public enum CachePolicy {
+    // entries within their stale-while-revalidate window are served and revalidated in the
+    // background
+    SERVE_STALE,
+    // entries past their max age are revalidated on the calling thread before they are used
+    REVALIDATE,
+    // the cache is neither read nor written, for a URL that is not asked for again
+    BYPASS
+  }
+
+  /**
+   * Reads a successful response body into a result.
+   */
+  interface BodyReader<T> {
+
+    T read(InputStream body) throws IOException;
+  }
+
+  /**
+   * Replace the rate limiter, retry policy and circuit breaker every request goes through.
+   */
+  @VisibleForTesting
+  static void setPolicies(RateLimiter limiter, RetryPolicy policy, CircuitBreaker breaker) {
+    rateLimiter = limiter;
+    retryPolicy = policy;
+    circuitBreaker = breaker;
+  }
+
+  /**
+   * Go back to the default rate limiter, retry policy and circuit breaker.
+   */
+  @VisibleForTesting
+  static void resetPolicies() {
+    setPolicies(new RateLimiter(REQUESTS_PER_SECOND, REQUEST_BURST),
+        new RetryPolicy(MAX_ATTEMPTS, BASE_RETRY_DELAY, MAX_RETRY_DELAY, MAX_RETRY_AFTER,
+            new Random()),
+        new CircuitBreaker(BREAKER_FAILURE_THRESHOLD, BREAKER_OPEN_TIME));
+  }
 
+  /**
+   * Make an HTTP request to the given URL and hand the response body to {@param bodyReader}.
+   * Returns null if the request did not succeed.
+   * <p>
+   * When an {@link HttpCache} is installed and {@param cachePolicy} does not bypass it, fresh
+   * entries are served from disk without a request, entries within their stale-while-revalidate
+   * window are served from disk and revalidated in the background if {@param cachePolicy} allows,
+   * and all others are revalidated with a conditional request where a 304 counts as a cache hit.
+   * <p>
+   * Requests go out no faster than the shared {@link RateLimiter} allows. Rate limited and
+   * transient server failures are retried as the {@link RetryPolicy} says, and while the {@link
+   * CircuitBreaker} is open no request goes out at all. Either way, once a request has given up
+   * the cached entry is served however old it is.
+   */
+  private static <T> T makeHttpRequest(URL url, CancellationToken token,
+      CachePolicy cachePolicy, BodyReader<T> bodyReader) throws IOException {
     // If the URL is null, then return early.
     if (url == null) {
-      return jsonResponse;
+      return null;
     }
 
-    HttpURLConnection urlConnection = null;
-    InputStream inputStream = null;
-    try {
-      urlConnection = (HttpURLConnection) url.openConnection();
-      urlConnection.setReadTimeout(10000 /* milliseconds */);
-      urlConnection.setConnectTimeout(15000 /* milliseconds */);
-      urlConnection.setRequestMethod("GET");
-      urlConnection.connect();
+    HttpCache cache = cachePolicy == CachePolicy.BYPASS ? null : HttpCache.getInstalled();
+    HttpCache.Entry cached = cache == null ? null : cache.get(url);
+    if (cached != null && cached.isFresh()) {
+      return readCached(cached, bodyReader);
+    }
+    if (cachePolicy == CachePolicy.SERVE_STALE && cached != null
+        && cached.isStaleWhileRevalidate()) {
+      revalidateInBackground(url, cache, cached);
+      return readCached(cached, bodyReader);
+    }
+    return makeConditionalRequest(url, token, cache, cached, bodyReader);
+  }
+
+  /**
+   * Request {@param url}, sending the validators of {@param cached} if there is one, and hand the
+   * body to {@param bodyReader}. With a {@param cache} the body is stored before it is read.
+   * Failures are retried, and {@param cached} is served if the request gives up.
+   */
+  private static <T> T makeConditionalRequest(URL url, CancellationToken token, HttpCache cache,
+      HttpCache.Entry cached, BodyReader<T> bodyReader) throws IOException {
+    CircuitBreaker breaker = circuitBreaker;
+    RetryPolicy policy = retryPolicy;
+    for (int attempt = 1; ; attempt++) {
+      if (!breaker.allowRequest()) {
+        // The API is unhealthy, do not add to its load
+        return readStale(cached, bodyReader);
+      }
+      rateLimiter.acquire();
+
+      Attempt<T> outcome = attemptRequest(url, token, cache, cached, bodyReader);
+      if (outcome == null) {
+        // cancelled
+        return null;
+      }
+      if (!outcome.failed) {
+        breaker.recordSuccess();
+        return outcome.result;
+      }
+      breaker.recordFailure();
 
+      long delay = policy.delayAfter(attempt, outcome.retryAfter);
+      if (delay < 0) {
+        return readStale(cached, bodyReader);
+      }
+      try {
+        Thread.sleep(delay);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException("Interrupted waiting to retry");
+      }
+    }
+  }
+
+  /**
+   * The outcome of sending a request once: its result, or whether it failed in a way worth
+   * retrying and how long the server asked to wait.
+   */
+  private static final class Attempt<T> {
+
+    private T result;
+    private boolean failed;
+    private String retryAfter;
+  }
+
+  /**
+   * Send a single request for {@param url}, see {@link #makeConditionalRequest}. Returns null if
+   * {@param token} was cancelled.
+   */
+  private static <T> Attempt<T> attemptRequest(URL url, CancellationToken token, HttpCache cache,
+      HttpCache.Entry cached, BodyReader<T> bodyReader) {
+    Attempt<T> outcome = new Attempt<>();
+    T result = null;
+
+    String etag = cached == null ? null : cached.getEtag();
+    String lastModified = cached == null ? null : cached.getLastModified();
+    try (Transport.Response response = Transport.get(url, token,
+        "If-None-Match", etag, "If-Modified-Since", lastModified)) {
       // If the request was successful (response code 200),
       // then read the input stream and parse the response.
-      if (urlConnection.getResponseCode() == 200) {
-        inputStream = urlConnection.getInputStream();
-        jsonResponse = readFromStream(inputStream);
+      int responseCode = response.getCode();
+      if (responseCode == HttpURLConnection.HTTP_OK) {
+        if (cache != null) {
+          // Parsed as it streams in and is stored, rather than stored first and read back
+          HttpCache.Editor editor = cache.edit(url, response.getBody());
+          try {
+            long start = Tracer.start();
+            result = bodyReader == null ? null : bodyReader.read(editor);
+            Tracer.end(Span.PARSE, start);
+            commit(editor, response);
+          } finally {
+            editor.abort();
+          }
+        } else {
+          // Parsed as it streams in, so the parse span includes reading the body
+          long start = Tracer.start();
+          result = bodyReader.read(response.getBody());
+          Tracer.end(Span.PARSE, start);
+        }
+      } else if (responseCode == HttpURLConnection.HTTP_NOT_MODIFIED && cached != null) {
+        // The cached copy is still current
+        HttpCache.Entry validated = cache.markValidated(cached,
+            response.getHeader("ETag"), response.getHeader("Last-Modified"));
+        result = readCached(validated, bodyReader);
+      } else if (retryPolicy.isRetryable(responseCode)) {
+        Log.w(LOG_TAG, "Error response code: " + responseCode);
+        outcome.failed = true;
+        outcome.retryAfter = response.getHeader("Retry-After");
       } else {
-        Log.e(LOG_TAG, "Error response code: " + urlConnection.getResponseCode());
+        // A client error is not the API being unhealthy, and asking again will not help
+        Log.e(LOG_TAG, "Error response code: " + responseCode);
+      }
+      if (Tracer.ENABLED) {
+        Log.d(LOG_TAG, "Fetched " + url.getPath() + ": " + response.getWireBytes()
+            + " bytes on the wire, " + response.getDecodedBytes() + " bytes decoded");
       }
     } catch (IOException e) {
+      if (token != null && token.isCancelled()) {
+        return null;
+      }
       Log.e(LOG_TAG, "Problem retrieving the news JSON results.", e);
+      outcome.failed = true;
+    }
+    outcome.result = result;
+    return outcome;
+  }
+
+  /**
+   * Store the body {@param editor} has read so far and the rest of it as the cache entry. A body
+   * that was parsed but could not be stored is still good, so failing to store it is only logged.
+   */
+  private static void commit(HttpCache.Editor editor, Transport.Response response) {
+    try {
+      editor.commit(response.getHeader("ETag"), response.getHeader("Last-Modified"));
+    } catch (IOException e) {
+      Log.e(LOG_TAG, "Problem storing the HTTP cache entry.", e);
+    }
+  }
+
+  /**
+   * Serve {@param cached} however old it is, or null if there is nothing cached.
+   */
+  private static <T> T readStale(HttpCache.Entry cached, BodyReader<T> bodyReader)
+      throws IOException {
+    return cached == null ? null : readCached(cached, bodyReader);
+  }
+
+  /**
+   * Hand the body of a cached response to {@param bodyReader}.
+   */
+  private static <T> T readCached(HttpCache.Entry entry, BodyReader<T> bodyReader)
+      throws IOException {
+    if (bodyReader == null) {
+      return null;
+    }
+    long start = Tracer.start();
+    try (InputStream inputStream = entry.open()) {
+      return bodyReader.read(inputStream);
     } finally {
-      if (urlConnection != null) {
-        urlConnection.disconnect();
-      }
-      if (inputStream != null) {
-        // Closing the input stream could throw an IOException, which is why
-        // the makeHttpRequest(URL url) method signature specifies than an IOException
-        // could be thrown.
-        inputStream.close();
-      }
+      Tracer.end(Span.PARSE, start);
     }
-    return jsonResponse;
+  }
+
+  /**
+   * Refresh {@param cached} off the calling thread so the next request finds it fresh.
+   */
+  private static void revalidateInBackground(URL url, HttpCache cache, HttpCache.Entry cached) {
+    if (!cache.beginRevalidation(cached)) {
+      return;
+    }
+    REVALIDATION_EXECUTOR.execute(() -> {
+      try {
+        makeConditionalRequest(url, null, cache, cached, null);
+      } catch (IOException e) {
+        Log.e(LOG_TAG, "Problem revalidating a cached response.", e);
+      } finally {
+        cache.endRevalidation(cached);
+      }
+    });
   }
 
   /**
@@ -139,7 +749,7 @@ public final class QueryUtils {
    * server.
    */
   @RequiresApi(api = VERSION_CODES.KITKAT)
-  private static String readFromStream(InputStream inputStream) throws IOException {
+  static String readFromStream(InputStream inputStream) throws IOException {
     StringBuilder output = new StringBuilder();
     if (inputStream != null) {
       InputStreamReader inputStreamReader = new InputStreamReader(inputStream,
@@ -156,39 +766,18 @@ public final class QueryUtils {
 
 
   /**
-   * Make HTTP request and return a json response from a {@param requestUrl}
+   * Return a properly formatted contributor string from a JSON Object result
    */
-  @RequiresApi(api = VERSION_CODES.KITKAT)
-  private static String getJSONResponse(String requestUrl) {
-    // Perform HTTP request to the URL and receive a JSON response back
-    String jsonResponse = null;
-    try {
-      jsonResponse = makeHttpRequest(createUrl(requestUrl));
-    } catch (IOException e) {
-      Log.e(LOG_TAG, "Problem making the HTTP request.", e);
+  static String getContributorFrom(JSONObject result) {
+    JSONArray tags = result.optJSONArray("tags");
+    JSONObject firstTag = tags == null ? null : tags.optJSONObject(0);
+    if (firstTag == null || firstTag.isNull("webTitle")) {
+      return "Anonymous";
     }
-    return jsonResponse;
-  }
 
-  /**
-   * Return a properly formatted contributor string from a JSON Object result
-   */
-  private static String getContributorFrom(JSONObject result) {
-    String contributor;
-    try {
-      contributor = result
-          .getJSONArray("tags")
-          .getJSONObject(0)
-          .getString("webTitle");
-      try {
-        if (result.getJSONArray("tags").getJSONObject(1) != null) {
-          contributor += " et al.";
-        }
-      } catch (JSONException ignored) {
-        // do nothing
-      }
-    } catch (JSONException e) {
-      contributor = "Anonymous";
+    String contributor = firstTag.optString("webTitle");
+    if (tags.length() > 1) {
+      contributor += " et al.";
     }
     return contributor;
   }
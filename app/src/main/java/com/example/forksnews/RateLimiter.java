@@ -0,0 +1,60 @@
+package com.example.forksnews;
+
+import java.io.InterruptedIOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token bucket limiting how often requests go out.
+ * <p>
+ * The bucket holds up to {@code burst} permits and refills at {@code permitsPerSecond}. A caller
+ * finding it empty reserves the next permit and sleeps until it is due, so waiting callers are
+ * served in arrival order and never more than the rate between them.
+ */
+public final class RateLimiter {
+
+  private final double permitsPerNano;
+  private final double burst;
+  // may go negative, by the permits reserved ahead of their refill
+  private double permits;
+  private long refilledAt;
+
+  /**
+   * @param permitsPerSecond The sustained rate
+   * @param burst            How many permits may be taken at once after a quiet spell
+   */
+  public RateLimiter(double permitsPerSecond, int burst) {
+    this.permitsPerNano = permitsPerSecond / TimeUnit.SECONDS.toNanos(1);
+    this.burst = burst;
+    this.permits = burst;
+    this.refilledAt = System.nanoTime();
+  }
+
+  /**
+   * Take a permit, waiting for one if the bucket is empty.
+   *
+   * @throws InterruptedIOException If the thread is interrupted while waiting
+   */
+  public void acquire() throws InterruptedIOException {
+    long wait = reserve();
+    if (wait <= 0) {
+      return;
+    }
+    try {
+      TimeUnit.NANOSECONDS.sleep(wait);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted waiting for a request permit");
+    }
+  }
+
+  /**
+   * Take a permit and return how many nanoseconds to wait before it may be used.
+   */
+  synchronized long reserve() {
+    long now = System.nanoTime();
+    permits = Math.min(burst, permits + (now - refilledAt) * permitsPerNano);
+    refilledAt = now;
+    permits -= 1;
+    return permits >= 0 ? 0 : (long) Math.ceil(-permits / permitsPerNano);
+  }
+}
@@ -0,0 +1,111 @@
+package com.example.forksnews;
+
+import android.content.Context;
+import android.content.Intent;
+import android.graphics.Color;
+import android.graphics.drawable.ColorDrawable;
+import android.net.Uri;
+import android.os.Bundle;
+import android.text.Html;
+import android.text.method.LinkMovementMethod;
+import android.view.View;
+import android.widget.TextView;
+import androidx.appcompat.app.AppCompatActivity;
+import androidx.core.text.HtmlCompat;
+import com.example.forksnews.NewsRepository.Priority;
+import com.example.forksnews.NewsRepository.Request;
+
+/**
+ * Shows an article in the app. A body the {@link ArticlePrefetcher} already put in the {@link
+ * ArticleCache} is shown before the first frame, any other is fetched at {@link Priority#HIGH}.
+ * The article can still be opened in the browser, for its pictures and embeds.
+ */
+public class ReaderActivity extends AppCompatActivity {
+
+  private static final String EXTRA_ID = "com.example.forksnews.extra.ID";
+  private static final String EXTRA_TITLE = "com.example.forksnews.extra.TITLE";
+  private static final String EXTRA_SECTION = "com.example.forksnews.extra.SECTION";
+  private static final String EXTRA_CONTRIBUTOR = "com.example.forksnews.extra.CONTRIBUTOR";
+  private static final String EXTRA_URL = "com.example.forksnews.extra.URL";
+
+  // Pictures are left to the browser, they take no room in the text
+  private static final Html.ImageGetter NO_IMAGES = source -> new ColorDrawable(Color.TRANSPARENT);
+
+  private TextView statusView;
+  private TextView bodyView;
+  private Request<?> articleRequest;
+
+  /**
+   * Return the intent that opens {@param news}, which must have a content id, see {@link
+   * News#hasContentId()}.
+   */
+  public static Intent newIntent(Context context, News news) {
+    return new Intent(context, ReaderActivity.class)
+        .putExtra(EXTRA_ID, news.getId())
+        .putExtra(EXTRA_TITLE, news.getTitle())
+        .putExtra(EXTRA_SECTION, news.getSection())
+        .putExtra(EXTRA_CONTRIBUTOR, news.getContributor())
+        .putExtra(EXTRA_URL, news.getUrl());
+  }
+
+  @Override
+  protected void onCreate(Bundle savedInstanceState) {
+    super.onCreate(savedInstanceState);
+    setContentView(R.layout.activity_reader);
+
+    Intent intent = getIntent();
+    setTextView(R.id.title_reader, intent.getStringExtra(EXTRA_TITLE));
+    setTextView(R.id.section_reader, intent.getStringExtra(EXTRA_SECTION));
+    setTextView(R.id.contributor_reader, intent.getStringExtra(EXTRA_CONTRIBUTOR));
+    statusView = findViewById(R.id.status_reader);
+    bodyView = findViewById(R.id.body_reader);
+    bodyView.setMovementMethod(LinkMovementMethod.getInstance());
+
+    Uri articleUri = Uri.parse(intent.getStringExtra(EXTRA_URL));
+    findViewById(R.id.open_reader).setOnClickListener(
+        view -> startActivity(new Intent(Intent.ACTION_VIEW, articleUri)));
+
+    String id = intent.getStringExtra(EXTRA_ID);
+    NewsRepository repository = NewsRepository.getInstance(this);
+    String body = repository.readArticle(id);
+    if (body != null) {
+      showBody(body);
+    } else {
+      statusView.setText(R.string.reader_loading);
+      articleRequest = repository.loadArticle(id, Priority.HIGH, this::onArticleLoaded);
+    }
+  }
+
+  @Override
+  protected void onDestroy() {
+    // Across a configuration change the new activity asks for the same article at once
+    if (articleRequest != null) {
+      if (isChangingConfigurations()) {
+        articleRequest.detach();
+      } else {
+        articleRequest.cancel();
+      }
+    }
+    super.onDestroy();
+  }
+
+  private void onArticleLoaded(String body) {
+    if (body == null) {
+      statusView.setText(R.string.reader_error);
+    } else {
+      showBody(body);
+    }
+  }
+
+  private void showBody(String body) {
+    statusView.setVisibility(View.GONE);
+    bodyView.setText(HtmlCompat.fromHtml(body, HtmlCompat.FROM_HTML_MODE_LEGACY, NO_IMAGES,
+        null));
+  }
+
+  // Helper methods
+  private void setTextView(int resourceId, String text) {
+    TextView textView = findViewById(resourceId);
+    textView.setText(text);
+  }
+}
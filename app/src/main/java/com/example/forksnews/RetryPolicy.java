@@ -0,0 +1,87 @@
+package com.example.forksnews;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Decides which failed requests are retried and how long to wait before each retry.
+ * <p>
+ * Waits grow exponentially from {@code baseDelay} up to {@code maxDelay}, with full jitter so
+ * clients that failed together do not retry together. A Retry-After header from the server is
+ * waited out in full, unless it asks for longer than {@code maxRetryAfter}, in which case the
+ * request is not retried at all.
+ */
+public final class RetryPolicy {
+
+  private final int maxAttempts;
+  private final long baseDelay;
+  private final long maxDelay;
+  private final long maxRetryAfter;
+  private final Random random;
+
+  /**
+   * @param maxAttempts   How many times a request is sent at most, the first time included
+   * @param baseDelay     The longest wait in milliseconds before the first retry
+   * @param maxDelay      The longest wait in milliseconds before any retry
+   * @param maxRetryAfter The longest Retry-After in milliseconds that is waited out
+   */
+  public RetryPolicy(int maxAttempts, long baseDelay, long maxDelay, long maxRetryAfter,
+      Random random) {
+    this.maxAttempts = maxAttempts;
+    this.baseDelay = baseDelay;
+    this.maxDelay = maxDelay;
+    this.maxRetryAfter = maxRetryAfter;
+    this.random = random;
+  }
+
+  /**
+   * Whether a response with {@param code} is worth retrying: the rate limit was hit or the server
+   * had a transient problem.
+   */
+  public boolean isRetryable(int code) {
+    return code == 429 || code == 500 || code == 502 || code == 503 || code == 504;
+  }
+
+  /**
+   * Return how many milliseconds to wait before retrying a request that failed on its {@param
+   * attempt}, counted from 1, or -1 if it should not be retried.
+   *
+   * @param retryAfter The response's Retry-After header, or null
+   */
+  public long delayAfter(int attempt, String retryAfter) {
+    if (attempt >= maxAttempts) {
+      return -1;
+    }
+    long serverDelay = parseRetryAfter(retryAfter, System.currentTimeMillis());
+    if (serverDelay > maxRetryAfter) {
+      return -1;
+    }
+    long cap = Math.min(maxDelay, baseDelay << Math.min(attempt - 1, 30));
+    long jittered = (long) (random.nextDouble() * cap);
+    return Math.max(serverDelay, jittered);
+  }
+
+  /**
+   * Return the wait in milliseconds a Retry-After {@param value} asks for, given as seconds or as
+   * an HTTP date, or 0 if there is none or it cannot be read.
+   */
+  static long parseRetryAfter(String value, long now) {
+    if (value == null || value.trim().isEmpty()) {
+      return 0;
+    }
+    String trimmed = value.trim();
+    try {
+      return Math.max(0, Long.parseLong(trimmed) * 1000);
+    } catch (NumberFormatException e) {
+      // not seconds, try a date
+    }
+    SimpleDateFormat httpDate = new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss zzz", Locale.US);
+    try {
+      return Math.max(0, httpDate.parse(trimmed).getTime() - now);
+    } catch (ParseException e) {
+      return 0;
+    }
+  }
+}
@@ -0,0 +1,380 @@
+package com.example.forksnews;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * In-memory inverted index over the titles, sections and contributors of every {@link News}
+ * fetched, so searches can be answered without the network.
+ * <p>
+ * Each term of a query matches the indexed words it is a prefix of, and an article matches when
+ * every term does. Articles are ranked by where their words matched, a title match counting for
+ * more than a contributor or section match, and whole word matches for more than prefix matches.
+ * Ties go to the newer article.
+ * <p>
+ * Postings are packed ints in sorted term buckets. Once the estimated size passes the memory
+ * budget, the least recently added quarter of the articles is dropped and the index is rebuilt
+ * without them, until it fits again.
+ * <p>
+ * Writers hold the lock, searches do not: every {@link #addAll} ends by publishing a {@link
+ * Snapshot} of the index, and searches read the latest one. Postings are only ever appended past
+ * the size a snapshot saw, so snapshots share their arrays rather than copy them.
+ */
+public final class SearchIndex {
+
+  // Default budget for the process wide index
+  private static final long DEFAULT_MAX_BYTES = 512 * 1024; // 512 KiB
+
+  // Where a word was found, stored in the low bits of a posting
+  private static final int FIELD_TITLE = 0;
+  private static final int FIELD_CONTRIBUTOR = 1;
+  private static final int FIELD_SECTION = 2;
+  private static final int FIELD_BITS = 2;
+  private static final int FIELD_MASK = (1 << FIELD_BITS) - 1;
+  private static final int[] FIELD_WEIGHTS = {4, 2, 1};
+  // Multiplies the weight of a term matching a whole word rather than a prefix
+  private static final int EXACT_BONUS = 2;
+
+  // Rough heap costs used against the budget
+  private static final int TERM_OVERHEAD = 64;
+  private static final int POSTING_BYTES = 4;
+  private static final int ARTICLE_OVERHEAD = 48;
+
+  private static SearchIndex instance;
+
+  private final long maxBytes;
+  // term to its postings, each (article id << FIELD_BITS | field)
+  private final TreeMap<String, Postings> terms = new TreeMap<>();
+  // article id to article, null once removed
+  private final List<News> articles = new ArrayList<>();
+  // article id to the number of postings it added
+  private final List<Integer> postingCounts = new ArrayList<>();
+  private final Map<String, Integer> idsByUrl = new HashMap<>();
+  // live article ids, least recently added first
+  private final Deque<Integer> addOrder = new ArrayDeque<>();
+  private long bytes;
+  private int removedPostings;
+  // what searches read, replaced after every change
+  private volatile Snapshot snapshot;
+
+  /**
+   * @param maxBytes Estimated heap the index may take before old articles are dropped
+   */
+  public SearchIndex(long maxBytes) {
+    this.maxBytes = maxBytes;
+    snapshot = new Snapshot(terms, articles);
+  }
+
+  public static synchronized SearchIndex getInstance() {
+    if (instance == null) {
+      instance = new SearchIndex(DEFAULT_MAX_BYTES);
+    }
+    return instance;
+  }
+
+  /**
+   * Index {@param newsList}, replacing the indexed copy of any article already present.
+   */
+  public synchronized void addAll(Collection<News> newsList) {
+    for (News news : newsList) {
+      add(news);
+    }
+    trimToBudget();
+    snapshot = new Snapshot(terms, articles);
+  }
+
+  /**
+   * Return up to {@param limit} of the articles matching every term of {@param query}, best match
+   * first. Returns an empty list for an empty query. Never waits for an {@link #addAll} in
+   * progress, whose articles it may not see yet.
+   */
+  public List<News> search(String query, int limit) {
+    String[] queryTerms = tokenize(query);
+    if (queryTerms.length == 0 || limit <= 0) {
+      return Collections.emptyList();
+    }
+
+    Snapshot current = snapshot;
+    Map<Integer, Integer> scores = null;
+    for (String queryTerm : queryTerms) {
+      Map<Integer, Integer> termScores = current.score(queryTerm);
+      if (scores == null) {
+        scores = termScores;
+      } else {
+        // Keep only articles matching every term so far
+        Map<Integer, Integer> both = new HashMap<>();
+        for (Map.Entry<Integer, Integer> entry : termScores.entrySet()) {
+          Integer previous = scores.get(entry.getKey());
+          if (previous != null) {
+            both.put(entry.getKey(), previous + entry.getValue());
+          }
+        }
+        scores = both;
+      }
+      if (scores.isEmpty()) {
+        return Collections.emptyList();
+      }
+    }
+
+    List<Map.Entry<Integer, Integer>> ranked = new ArrayList<>(scores.entrySet());
+    Collections.sort(ranked, (a, b) -> {
+      int byScore = Integer.compare(b.getValue(), a.getValue());
+      return byScore != 0 ? byScore : Long.compare(
+          current.articles[b.getKey()].getPublishedAt(),
+          current.articles[a.getKey()].getPublishedAt());
+    });
+    List<News> results = new ArrayList<>(Math.min(limit, ranked.size()));
+    for (int i = 0; i < ranked.size() && i < limit; i++) {
+      results.add(current.articles[ranked.get(i).getKey()]);
+    }
+    return results;
+  }
+
+  /**
+   * Return the number of articles indexed.
+   */
+  public synchronized int size() {
+    return idsByUrl.size();
+  }
+
+  /**
+   * Return the estimated heap the index takes in bytes.
+   */
+  public synchronized long byteSize() {
+    return bytes;
+  }
+
+  // Helper methods
+
+  private void add(News news) {
+    Integer existing = idsByUrl.get(news.getUrl());
+    if (existing != null) {
+      News indexed = articles.get(existing);
+      if (indexed.getTitle().equals(news.getTitle())
+          && indexed.getContributor().equals(news.getContributor())
+          && indexed.getSection().equals(news.getSection())) {
+        // Refreshes mostly bring back what is already indexed
+        articles.set(existing, news);
+        return;
+      }
+      remove(existing);
+    }
+
+    int id = articles.size();
+    articles.add(news);
+    idsByUrl.put(news.getUrl(), id);
+    addOrder.addLast(id);
+    bytes += ARTICLE_OVERHEAD;
+
+    postingCounts.add(addPostings(id, FIELD_TITLE, news.getTitle())
+        + addPostings(id, FIELD_CONTRIBUTOR, news.getContributor())
+        + addPostings(id, FIELD_SECTION, news.getSection()));
+  }
+
+  /**
+   * Add a posting for every distinct word of {@param text}, returning how many were added.
+   */
+  private int addPostings(int id, int field, String text) {
+    int posting = id << FIELD_BITS | field;
+    int added = 0;
+    for (String term : tokenize(text)) {
+      Postings postings = terms.get(term);
+      if (postings == null) {
+        postings = new Postings();
+        terms.put(term, postings);
+        bytes += TERM_OVERHEAD + 2L * term.length();
+      }
+      // a word repeated within a field adds nothing to the ranking
+      if (postings.last() != posting) {
+        postings.add(posting);
+        postings.live++;
+        bytes += POSTING_BYTES;
+        added++;
+      }
+    }
+    return added;
+  }
+
+  /**
+   * Forget the article with {@param id}. Its postings stay behind until the next compaction and
+   * are skipped meanwhile, but no longer count against the budget. Terms left with no live
+   * postings are dropped at once.
+   */
+  private void remove(int id) {
+    News news = articles.get(id);
+    articles.set(id, null);
+    idsByUrl.remove(news.getUrl());
+    addOrder.remove(id);
+    int postings = postingCounts.get(id);
+    removedPostings += postings;
+    bytes -= ARTICLE_OVERHEAD + (long) postings * POSTING_BYTES;
+
+    removeTerms(news.getTitle());
+    removeTerms(news.getContributor());
+    removeTerms(news.getSection());
+  }
+
+  /**
+   * Count one posting less for every distinct word of {@param text}, as added by {@link
+   * #addPostings}, dropping the terms that have none left.
+   */
+  private void removeTerms(String text) {
+    for (String term : new HashSet<>(Arrays.asList(tokenize(text)))) {
+      Postings postings = terms.get(term);
+      if (--postings.live == 0) {
+        terms.remove(term);
+        removedPostings -= postings.size;
+        bytes -= TERM_OVERHEAD + 2L * term.length();
+      }
+    }
+  }
+
+  private void trimToBudget() {
+    if (bytes <= maxBytes) {
+      if ((long) removedPostings * POSTING_BYTES > bytes / 2) {
+        compact();
+      }
+      return;
+    }
+    while (bytes > maxBytes && !addOrder.isEmpty()) {
+      // Drop a quarter at a time, so the rebuild is not needed again for the next few adds
+      int drop = Math.max(1, addOrder.size() / 4);
+      for (int i = 0; i < drop; i++) {
+        remove(addOrder.peekFirst());
+      }
+      compact();
+    }
+  }
+
+  /**
+   * Rebuild the index from the live articles, dropping removed postings and renumbering ids.
+   */
+  private void compact() {
+    List<News> live = new ArrayList<>(addOrder.size());
+    for (int id : addOrder) {
+      live.add(articles.get(id));
+    }
+    terms.clear();
+    articles.clear();
+    postingCounts.clear();
+    idsByUrl.clear();
+    addOrder.clear();
+    bytes = 0;
+    removedPostings = 0;
+    for (News news : live) {
+      add(news);
+    }
+  }
+
+  /**
+   * Split {@param text} into lower-cased words of letters and digits.
+   */
+  static String[] tokenize(String text) {
+    if (text == null || text.isEmpty()) {
+      return new String[0];
+    }
+    List<String> tokens = new ArrayList<>();
+    int start = -1;
+    for (int i = 0; i <= text.length(); i++) {
+      boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+      if (wordChar && start < 0) {
+        start = i;
+      } else if (!wordChar && start >= 0) {
+        tokens.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+        start = -1;
+      }
+    }
+    return tokens.toArray(new String[0]);
+  }
+
+  /**
+   * A growable array of postings.
+   */
+  private static final class Postings {
+
+    private int[] values;
+    private int size;
+    // postings of articles not removed yet
+    private int live;
+
+    Postings() {
+      values = new int[2];
+    }
+
+    /**
+     * A copy sharing the values added so far, which {@link #add} never writes again.
+     */
+    private Postings(Postings postings) {
+      values = postings.values;
+      size = postings.size;
+    }
+
+    Postings freeze() {
+      return new Postings(this);
+    }
+
+    void add(int posting) {
+      if (size == values.length) {
+        values = Arrays.copyOf(values, size * 2);
+      }
+      values[size++] = posting;
+    }
+
+    int last() {
+      return size == 0 ? -1 : values[size - 1];
+    }
+  }
+
+  /**
+   * The index as it was after an {@link #addAll}, never changed once published.
+   */
+  private static final class Snapshot {
+
+    private final TreeMap<String, Postings> terms = new TreeMap<>();
+    // article id to article, null once removed
+    private final News[] articles;
+
+    Snapshot(TreeMap<String, Postings> terms, List<News> articles) {
+      for (Map.Entry<String, Postings> entry : terms.entrySet()) {
+        this.terms.put(entry.getKey(), entry.getValue().freeze());
+      }
+      this.articles = articles.toArray(new News[0]);
+    }
+
+    /**
+     * Return the best weight {@param queryTerm} reaches in each article it matches, keyed by id.
+     */
+    Map<Integer, Integer> score(String queryTerm) {
+      Map<Integer, Integer> scores = new HashMap<>();
+      SortedMap<String, Postings> matches =
+          terms.subMap(queryTerm, queryTerm + Character.MAX_VALUE);
+      for (Map.Entry<String, Postings> match : matches.entrySet()) {
+        int bonus = match.getKey().length() == queryTerm.length() ? EXACT_BONUS : 1;
+        Postings postings = match.getValue();
+        for (int i = 0; i < postings.size; i++) {
+          int id = postings.values[i] >>> FIELD_BITS;
+          if (articles[id] == null) {
+            continue;
+          }
+          int weight = FIELD_WEIGHTS[postings.values[i] & FIELD_MASK] * bonus;
+          Integer previous = scores.get(id);
+          if (previous == null || previous < weight) {
+            scores.put(id, weight);
+          }
+        }
+      }
+      return scores;
+    }
+  }
+}
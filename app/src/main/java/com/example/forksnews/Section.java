@@ -2,7 +2,27 @@ package com.example.forksnews;
 
 public class Section extends Item {
 
-  public Section(String title, String url) {
+  private final String id;
+
+  /**
+   * @param id    The Guardian section id used in section= queries e.g. "sport"
+   * @param title The section name e.g. "Sport"
+   * @param url   The url on the Guardian site
+   */
+  public Section(String id, String title, String url) {
     super(title, url);
+    this.id = id;
+  }
+
+  public String getId() {
+    return id;
+  }
+
+  /**
+   * Return a number as stable as the section id, for {@link
+   * androidx.recyclerview.widget.RecyclerView.Adapter#getItemId(int)}.
+   */
+  public long getStableId() {
+    return stableId(id);
   }
 }
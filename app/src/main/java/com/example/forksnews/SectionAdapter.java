@@ -33,11 +33,17 @@ public class SectionAdapter extends RecyclerView.Adapter<SectionAdapter.ViewHold
     }
   }
 
+  // alpha of the chips that are not selected while another one is
+  private static final float UNSELECTED_ALPHA = 0.5f;
+
   // member variables and constructor
   private List<Section> sections;
+  private String selectedId;
 
   public SectionAdapter(List<Section> sections) {
     this.sections = sections;
+    // Reloaded sections rebind their chips in place rather than through new holders
+    setHasStableIds(true);
   }
 
 
@@ -96,6 +102,10 @@ public class SectionAdapter extends RecyclerView.Adapter<SectionAdapter.ViewHold
 
     TextView titleTextView = holder.titleTextView;
     titleTextView.setText(section.getTitle());
+
+    boolean selected = section.getId().equals(selectedId);
+    titleTextView.setSelected(selected);
+    titleTextView.setAlpha(selectedId == null || selected ? 1f : UNSELECTED_ALPHA);
   }
 
   /**
@@ -108,7 +118,35 @@ public class SectionAdapter extends RecyclerView.Adapter<SectionAdapter.ViewHold
     return sections.size();
   }
 
+  @Override
+  public long getItemId(int position) {
+    return sections.get(position).getStableId();
+  }
+
+  /**
+   * The layout is the view type, so the chips can share a {@link RecyclerView.RecycledViewPool}
+   * with other lists without mixing up holders.
+   */
+  @Override
+  public int getItemViewType(int position) {
+    return R.layout.item_section;
+  }
+
   public Section getItem(int position) {
     return this.sections.get(position);
   }
+
+  // replace the sections shown
+  public void setSections(List<Section> sections) {
+    this.sections = sections;
+    notifyDataSetChanged();
+  }
+
+  /**
+   * Highlight the section with {@param id}, or none if it is null.
+   */
+  public void setSelectedId(String id) {
+    this.selectedId = id;
+    notifyItemRangeChanged(0, getItemCount());
+  }
 }
@@ -0,0 +1,147 @@
+package com.example.forksnews;
+
+import android.content.Context;
+import android.os.SystemClock;
+import android.util.Log;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Fetches the Guardian sections and, concurrently, the feeds of the requested sections into a
+ * {@link SectionFeeds}
+ */
+public class SectionFeedFetcher {
+  private static final String LOG_TAG = SectionFeedFetcher.class.getSimpleName();
+  // Bounds how many section feeds are fetched at once, across all loaders
+  private static final int MAX_PARALLEL_FEEDS = 4;
+  private static final ExecutorService FEED_EXECUTOR =
+      Executors.newFixedThreadPool(MAX_PARALLEL_FEEDS);
+
+  private final Context context;
+  private final GuardianQuery sectionsQuery;
+  private final GuardianQuery feedQuery;
+  private final List<String> sectionIds;
+  private final long feedTimeout;
+
+  /**
+   * Constructor
+   * Sets up private members
+   *
+   * @param sectionsQuery The /sections request
+   * @param feedQuery     The /search request every section feed is built from
+   * @param sectionIds    The ids of the sections whose feeds to load, the first ones are also
+   *                      shown first
+   * @param feedTimeout   How long in milliseconds to wait for all the section feeds, from when
+   *                      the first one is sent
+   */
+  public SectionFeedFetcher(Context context, GuardianQuery sectionsQuery,
+      GuardianQuery feedQuery, Collection<String> sectionIds, long feedTimeout) {
+    this.context = context.getApplicationContext();
+    this.sectionsQuery = sectionsQuery;
+    this.feedQuery = feedQuery;
+    this.sectionIds = new ArrayList<>(sectionIds);
+    this.feedTimeout = feedTimeout;
+  }
+
+  /**
+   * Fetch the sections, then fan out to the section feeds. Cancelling {@param token} cancels
+   * every feed still in flight.
+   */
+  public SectionFeeds fetch(CancellationToken token) {
+    List<Section> fetched = QueryUtils.fetchSectionData(sectionsQuery.toUrl(), token);
+    if (fetched == null || fetched.isEmpty()) {
+      return null;
+    }
+    List<Section> sections = orderSections(fetched);
+
+    // Fan out, one request per section. Each feed has its own token, so a feed that times out
+    // is disconnected without the others
+    long deadline = SystemClock.elapsedRealtime() + feedTimeout;
+    Map<String, Future<List<News>>> futures = new LinkedHashMap<>();
+    Map<String, CancellationToken> feedTokens = new LinkedHashMap<>();
+    for (Section section : sections) {
+      if (sectionIds.contains(section.getId())) {
+        String url = feedQuery.newBuilder()
+            .section(section.getId())
+            .build()
+            .toUrl();
+        CancellationToken feedToken = new CancellationToken();
+        feedTokens.put(section.getId(), feedToken);
+        futures.put(section.getId(), FEED_EXECUTOR.submit(
+            () -> QueryUtils.fetchNewsData(url, feedToken)));
+      }
+    }
+
+    // Gather, giving up on every feed not in by the deadline
+    Map<String, List<News>> feeds = new LinkedHashMap<>();
+    for (Map.Entry<String, Future<List<News>>> entry : futures.entrySet()) {
+      if (token.isCancelled()) {
+        cancelAll(futures.values(), feedTokens.values());
+        return null;
+      }
+      long remaining = Math.max(0, deadline - SystemClock.elapsedRealtime());
+      try {
+        List<News> feed = entry.getValue().get(remaining, TimeUnit.MILLISECONDS);
+        if (feed != null) {
+          feeds.put(entry.getKey(), feed);
+        }
+      } catch (TimeoutException e) {
+        Log.e(LOG_TAG, "Timed out loading the " + entry.getKey() + " section", e);
+        // Interrupting the worker does not abort a blocked read, disconnecting does
+        feedTokens.get(entry.getKey()).cancel();
+        entry.getValue().cancel(true);
+      } catch (ExecutionException e) {
+        Log.e(LOG_TAG, "Problem loading the " + entry.getKey() + " section", e);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        cancelAll(futures.values(), feedTokens.values());
+        return null;
+      }
+    }
+
+    SectionFeeds sectionFeeds = new SectionFeeds(sections, feeds);
+    if (!sectionFeeds.getTimeline().isEmpty()) {
+      NewsDatabase.getInstance(context).upsert(sectionFeeds.getTimeline());
+    }
+    return sectionFeeds;
+  }
+
+  /**
+   * Put the requested sections first, in the requested order, and the rest after them.
+   */
+  private List<Section> orderSections(List<Section> fetched) {
+    List<Section> ordered = new ArrayList<>(fetched.size());
+    for (String id : sectionIds) {
+      for (Section section : fetched) {
+        if (section.getId().equals(id)) {
+          ordered.add(section);
+        }
+      }
+    }
+    for (Section section : fetched) {
+      if (!sectionIds.contains(section.getId())) {
+        ordered.add(section);
+      }
+    }
+    return ordered;
+  }
+
+  private static void cancelAll(Collection<Future<List<News>>> futures,
+      Collection<CancellationToken> feedTokens) {
+    for (CancellationToken feedToken : feedTokens) {
+      feedToken.cancel();
+    }
+    for (Future<List<News>> future : futures) {
+      future.cancel(true);
+    }
+  }
+}
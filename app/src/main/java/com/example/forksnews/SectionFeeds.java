@@ -0,0 +1,62 @@
+package com.example.forksnews;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The Guardian sections together with the feeds loaded for them so far, and those feeds merged
+ * into a single timeline.
+ */
+public class SectionFeeds {
+
+  private final List<Section> sections;
+  private final Map<String, List<News>> feeds;
+  private final List<News> timeline;
+
+  /**
+   * @param sections The sections, in the order their chips are shown
+   * @param feeds    The news of each loaded section, by section id
+   */
+  public SectionFeeds(List<Section> sections, Map<String, List<News>> feeds) {
+    this.sections = Collections.unmodifiableList(sections);
+    this.feeds = Collections.unmodifiableMap(feeds);
+    this.timeline = Collections.unmodifiableList(merge(feeds.values()));
+  }
+
+  public List<Section> getSections() {
+    return sections;
+  }
+
+  /**
+   * Return the loaded news of the section with {@param sectionId}, or null if it is not loaded.
+   */
+  public List<News> getFeed(String sectionId) {
+    return feeds.get(sectionId);
+  }
+
+  /**
+   * Return the news of every loaded section, newest first, each article once.
+   */
+  public List<News> getTimeline() {
+    return timeline;
+  }
+
+  // helper methods
+  private static List<News> merge(Iterable<List<News>> feeds) {
+    List<News> merged = new ArrayList<>();
+    Set<String> seen = new HashSet<>();
+    for (List<News> feed : feeds) {
+      for (News news : feed) {
+        if (seen.add(news.getUrl())) {
+          merged.add(news);
+        }
+      }
+    }
+    Collections.sort(merged, (a, b) -> Long.compare(b.getPublishedAt(), a.getPublishedAt()));
+    return merged;
+  }
+}
@@ -0,0 +1,36 @@
+package com.example.forksnews;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Shares one instance of strings that repeat across many {@link News}, like section names and
+ * contributors.
+ */
+public final class StringPool {
+
+  // Past this many distinct strings the pool starts over rather than grow without limit
+  private static final int MAX_SIZE = 4096;
+
+  private static final ConcurrentHashMap<String, String> pool = new ConcurrentHashMap<>();
+
+  // static use only
+  private StringPool() {
+  }
+
+  /**
+   * Return the pooled instance equal to {@param value}, adding it if there is none.
+   */
+  public static String intern(String value) {
+    if (value == null) {
+      return null;
+    }
+    String pooled = pool.putIfAbsent(value, value);
+    if (pooled != null) {
+      return pooled;
+    }
+    if (pool.size() > MAX_SIZE) {
+      pool.clear();
+    }
+    return value;
+  }
+}
@@ -0,0 +1,156 @@
+package com.example.forksnews;
+
+import android.util.LruCache;
+import android.widget.TextView;
+import androidx.core.text.PrecomputedTextCompat;
+import androidx.core.widget.TextViewCompat;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Titles and contributors with their text layout measured ahead of time, so binding them to a
+ * {@link TextView} does not measure glyphs or find line breaks on the UI thread.
+ * <p>
+ * The text metrics of each kind of {@link TextView} are taken from the real views once they are
+ * inflated. Load threads then measure the text of every feed they deliver with those metrics, and
+ * binds pick the measured text up from a per-article cache. Text that has not been measured, or
+ * was measured for other metrics, is bound as plain text.
+ * <p>
+ * Under memory pressure the cache is trimmed as a {@link CacheManager} tier, a whole style at a
+ * time.
+ */
+public final class TextLayoutCache implements CacheManager.Tier {
+
+  // How many measured texts of each style are kept, a few pages of every feed on screen
+  private static final int MAX_TITLES = 160;
+  private static final int MAX_CONTRIBUTORS = 64;
+  // Rough heap costs of a measured text: the text, a width per char and the line break runs
+  private static final int MEASURED_OVERHEAD = 160;
+  private static final int MEASURED_CHAR_BYTES = 10;
+
+  private static final TextLayoutCache INSTANCE = new TextLayoutCache();
+
+  /**
+   * The text views text is measured for.
+   */
+  public enum Style {
+    MAIN_TITLE,
+    MAIN_CONTRIBUTOR,
+    RELATED_TITLE,
+    RELATED_CONTRIBUTOR
+  }
+
+  // the metrics of each style, replaced whole so load threads read them without locking
+  private volatile Map<Style, PrecomputedTextCompat.Params> params = new EnumMap<>(Style.class);
+  // measured text by its string, per style
+  private final Map<Style, LruCache<String, PrecomputedTextCompat>> cache =
+      new EnumMap<>(Style.class);
+
+  private TextLayoutCache() {
+    for (Style style : Style.values()) {
+      boolean title = style == Style.MAIN_TITLE || style == Style.RELATED_TITLE;
+      cache.put(style, new LruCache<>(title ? MAX_TITLES : MAX_CONTRIBUTORS));
+    }
+  }
+
+  public static TextLayoutCache getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * Measure text of {@param style} for {@param textView} from now on. Text measured for other
+   * metrics, such as before a font scale change, is dropped.
+   */
+  public synchronized void setTextView(Style style, TextView textView) {
+    PrecomputedTextCompat.Params next = TextViewCompat.getTextMetricsParams(textView);
+    if (next.equals(params.get(style))) {
+      return;
+    }
+    Map<Style, PrecomputedTextCompat.Params> copy = new EnumMap<>(params);
+    copy.put(style, next);
+    params = copy;
+    cache.get(style).evictAll();
+  }
+
+  /**
+   * Measure the titles and contributors of {@param feed} that are not cached yet. Called on the
+   * thread that loaded the feed.
+   */
+  public void precompute(Feed feed) {
+    if (feed == null || feed.isEmpty()) {
+      return;
+    }
+    precompute(Style.MAIN_TITLE, feed.getMain().getTitle());
+    precompute(Style.MAIN_CONTRIBUTOR, feed.getMain().getContributor());
+    List<News> related = feed.getRelated();
+    for (int i = 0; i < related.size(); i++) {
+      // A cancelled load interrupts its thread, leave the rest to be bound as plain text
+      if (Thread.currentThread().isInterrupted()) {
+        return;
+      }
+      precompute(Style.RELATED_TITLE, related.get(i).getTitle());
+      precompute(Style.RELATED_CONTRIBUTOR, related.get(i).getContributor());
+    }
+  }
+
+  /**
+   * Show {@param text} in {@param textView}, which must have the metrics given for {@param style},
+   * with its measured layout if it has been measured.
+   */
+  public void bind(TextView textView, Style style, String text) {
+    PrecomputedTextCompat measured = cache.get(style).get(text);
+    if (measured == null) {
+      textView.setText(text);
+      return;
+    }
+    try {
+      TextViewCompat.setPrecomputedText(textView, measured);
+    } catch (IllegalArgumentException e) {
+      // measured for metrics the view no longer has
+      textView.setText(text);
+    }
+  }
+
+  @Override
+  public long byteSize() {
+    long size = 0;
+    for (Style style : Style.values()) {
+      size += byteSize(style);
+    }
+    return size;
+  }
+
+  /**
+   * Drop the measured text of whole styles, in reverse order of {@link Style}, until the rest
+   * takes at most {@param maxBytes}.
+   */
+  @Override
+  public void trimToSize(long maxBytes) {
+    long size = byteSize();
+    Style[] styles = Style.values();
+    for (int i = styles.length - 1; i >= 0 && size > maxBytes; i--) {
+      size -= byteSize(styles[i]);
+      cache.get(styles[i]).evictAll();
+    }
+  }
+
+  // Helper methods
+
+  private long byteSize(Style style) {
+    long size = 0;
+    for (String text : cache.get(style).snapshot().keySet()) {
+      size += MEASURED_OVERHEAD + MEASURED_CHAR_BYTES * text.length();
+    }
+    return size;
+  }
+
+  private void precompute(Style style, String text) {
+    PrecomputedTextCompat.Params metrics = params.get(style);
+    LruCache<String, PrecomputedTextCompat> measured = cache.get(style);
+    if (metrics == null || measured.get(text) != null) {
+      return;
+    }
+    measured.put(text, PrecomputedTextCompat.create(text, metrics));
+  }
+}
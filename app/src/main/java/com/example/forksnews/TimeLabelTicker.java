@@ -0,0 +1,82 @@
+package com.example.forksnews;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps the relative time labels of the visible rows of one or more {@link NewsAdapter}s current.
+ * <p>
+ * A single ticker serves every attached list. Each tick re-renders only the visible rows whose
+ * label has changed, through a partial bind, and the next tick is scheduled for the moment the
+ * earliest visible label changes.
+ */
+public class TimeLabelTicker {
+
+  // never tick more often than this, however close the next label change is
+  private static final long MIN_INTERVAL = 1000; // milliseconds
+  // re-check at least this often, e.g. for rows that scrolled into view since the last tick
+  private static final long MAX_INTERVAL = 60 * 1000; // milliseconds
+
+  private final Handler handler = new Handler(Looper.getMainLooper());
+  private final List<RecyclerView> recyclerViews = new ArrayList<>();
+  private final Runnable tick = this::tick;
+  private boolean running;
+
+  /**
+   * Keep the labels of {@param recyclerView} current. Its adapter must be a {@link NewsAdapter}
+   * and its layout manager a {@link LinearLayoutManager}.
+   */
+  public void attach(RecyclerView recyclerView) {
+    recyclerViews.add(recyclerView);
+  }
+
+  public void start() {
+    if (!running) {
+      running = true;
+      tick();
+    }
+  }
+
+  public void stop() {
+    running = false;
+    handler.removeCallbacks(tick);
+  }
+
+  private void tick() {
+    long now = System.currentTimeMillis();
+    long nextChange = now + MAX_INTERVAL;
+
+    for (RecyclerView recyclerView : recyclerViews) {
+      NewsAdapter adapter = (NewsAdapter) recyclerView.getAdapter();
+      LinearLayoutManager layoutManager = (LinearLayoutManager) recyclerView.getLayoutManager();
+      if (adapter == null || layoutManager == null) {
+        continue;
+      }
+
+      int first = layoutManager.findFirstVisibleItemPosition();
+      int last = layoutManager.findLastVisibleItemPosition();
+      if (first == RecyclerView.NO_POSITION) {
+        continue;
+      }
+      for (int position = first; position <= last && position < adapter.getItemCount();
+          position++) {
+        News news = adapter.getItem(position);
+        if (news.isPastStale(now)) {
+          adapter.notifyItemChanged(position, NewsAdapter.PAYLOAD_TIME);
+          news.getPast(now);
+        }
+        nextChange = Math.min(nextChange, news.getPastExpiresAt());
+      }
+    }
+
+    if (running) {
+      long delay = Math.max(MIN_INTERVAL, nextChange - now);
+      handler.postAtTime(tick, SystemClock.uptimeMillis() + delay);
+    }
+  }
+}
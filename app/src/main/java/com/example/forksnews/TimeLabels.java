@@ -0,0 +1,75 @@
+package com.example.forksnews;
+
+import android.os.Build.VERSION_CODES;
+import androidx.annotation.RequiresApi;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+
+/**
+ * Renders the time labels shown for {@link News}: the relative "N minutes ago" label and the
+ * absolute "M/dd HH:mm" one.
+ * <p>
+ * A relative label only changes when a whole minute, hour or day has passed since publication, so
+ * alongside each label it computes the moment the label stops being right. Callers can keep a label
+ * until then instead of rebuilding it on every bind.
+ */
+public final class TimeLabels {
+
+  private static final long MINUTE = 60 * 1000;
+  private static final long HOUR = 60 * MINUTE;
+  private static final long DAY = 24 * HOUR;
+  private static final String LOCAL_TIME_PATTERN = "M/dd HH:mm";
+
+  // formatter for the default locale, rebuilt only when the locale changes
+  private static DateTimeFormatter localTimeFormatter;
+  private static Locale localTimeLocale;
+
+  // static use only
+  private TimeLabels() {
+  }
+
+  /**
+   * Return the relative label of something published at {@param publishedAt}, as seen at
+   * {@param now}. Both are epoch milliseconds.
+   */
+  public static String pastLabel(long publishedAt, long now) {
+    long elapsed = Math.max(0, now - publishedAt);
+    if (elapsed < HOUR) {
+      return elapsed / MINUTE + " minutes ago";
+    } else if (elapsed < DAY) {
+      return elapsed / HOUR + " hours ago";
+    } else {
+      return elapsed / DAY + " days ago";
+    }
+  }
+
+  /**
+   * Return the first moment after {@param now} at which {@link #pastLabel(long, long)} gives a
+   * different label for {@param publishedAt}.
+   */
+  public static long nextChange(long publishedAt, long now) {
+    long elapsed = Math.max(0, now - publishedAt);
+    long unit;
+    if (elapsed < HOUR) {
+      unit = MINUTE;
+    } else if (elapsed < DAY) {
+      unit = HOUR;
+    } else {
+      unit = DAY;
+    }
+    return Math.max(now, publishedAt) + unit - elapsed % unit;
+  }
+
+  /**
+   * Return the shared formatter for absolute labels in the default locale.
+   */
+  @RequiresApi(api = VERSION_CODES.O)
+  public static synchronized DateTimeFormatter localTimeFormatter() {
+    Locale locale = Locale.getDefault();
+    if (localTimeFormatter == null || !locale.equals(localTimeLocale)) {
+      localTimeFormatter = DateTimeFormatter.ofPattern(LOCAL_TIME_PATTERN, locale);
+      localTimeLocale = locale;
+    }
+    return localTimeFormatter;
+  }
+}
@@ -0,0 +1,148 @@
+package com.example.forksnews;
+
+import android.os.SystemClock;
+import java.io.PrintWriter;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Records how long the stages between a request and the first bound row take, and keeps a rolling
+ * histogram of the most recent samples of each.
+ * <p>
+ * Wrap a stage as {@code long start = Tracer.start(); ... Tracer.end(Span.PARSE, start);}. Both
+ * calls test {@link #ENABLED}, a compile time constant, so with tracing disabled their bodies are
+ * empty and R8 removes the calls altogether. Tracing is on in debug builds and can be turned on
+ * for a release build through the {@code TRACING} build config field.
+ * <p>
+ * The percentiles are dumped by {@code adb shell dumpsys activity
+ * com.example.forksnews/.MainActivity}.
+ */
+public final class Tracer {
+
+  public static final boolean ENABLED = BuildConfig.TRACING;
+
+  // how many of the most recent samples each histogram keeps
+  private static final int WINDOW = 256;
+
+  /**
+   * The stages that are timed.
+   */
+  public enum Span {
+    // opening the connection, including DNS, TCP and TLS when no pooled socket is reused
+    CONNECT,
+    // from the request being sent to the response headers arriving
+    FIRST_BYTE,
+    // turning a response body into a list of news
+    PARSE,
+    // building a single News from its parsed fields
+    MODEL_BUILD,
+    // diffing a submitted list against the shown one until it is committed
+    DIFF,
+    // from the adapter being created to its first row being bound
+    FIRST_BIND
+  }
+
+  private static final Histogram[] histograms = new Histogram[Span.values().length];
+
+  static {
+    for (int i = 0; i < histograms.length; i++) {
+      histograms[i] = new Histogram();
+    }
+  }
+
+  // static use only
+  private Tracer() {
+  }
+
+  /**
+   * Return the start time of a span, to be passed to {@link #end(Span, long)}.
+   */
+  public static long start() {
+    if (!ENABLED) {
+      return 0;
+    }
+    return SystemClock.elapsedRealtimeNanos();
+  }
+
+  /**
+   * Record a sample of {@param span} that started at {@param start}.
+   */
+  public static void end(Span span, long start) {
+    if (!ENABLED) {
+      return;
+    }
+    histograms[span.ordinal()].add(SystemClock.elapsedRealtimeNanos() - start);
+  }
+
+  /**
+   * Write the sample count and the p50, p95 and p99 of every span to {@param writer}.
+   */
+  public static void dump(String prefix, PrintWriter writer) {
+    if (!ENABLED) {
+      writer.println(prefix + "Tracing is disabled in this build");
+      return;
+    }
+    writer.println(prefix + "Spans (ms over the last " + WINDOW + " samples):");
+    for (Span span : Span.values()) {
+      long[] sorted = histograms[span.ordinal()].snapshot();
+      if (sorted.length == 0) {
+        continue;
+      }
+      writer.println(String.format(Locale.ROOT, "%s  %-12s n=%-4d p50=%.2f p95=%.2f p99=%.2f",
+          prefix, span, sorted.length,
+          millis(percentile(sorted, 50)),
+          millis(percentile(sorted, 95)),
+          millis(percentile(sorted, 99))));
+    }
+  }
+
+  /**
+   * Drop every recorded sample.
+   */
+  public static void reset() {
+    for (Histogram histogram : histograms) {
+      histogram.clear();
+    }
+  }
+
+  // Helper methods
+
+  /**
+   * Return the nearest rank {@param percent} percentile of the ascending {@param sorted}.
+   */
+  static long percentile(long[] sorted, int percent) {
+    int rank = (int) Math.ceil(percent / 100.0 * sorted.length);
+    return sorted[Math.max(0, Math.min(sorted.length, rank) - 1)];
+  }
+
+  private static double millis(long nanos) {
+    return nanos / 1e6;
+  }
+
+  /**
+   * A ring buffer of the latest {@link #WINDOW} samples, overwriting the oldest once full.
+   */
+  private static final class Histogram {
+
+    private final long[] samples = new long[WINDOW];
+    private int next;
+    private int count;
+
+    synchronized void add(long sample) {
+      samples[next] = sample;
+      next = (next + 1) % WINDOW;
+      count = Math.min(count + 1, WINDOW);
+    }
+
+    synchronized long[] snapshot() {
+      long[] sorted = Arrays.copyOf(samples, count);
+      Arrays.sort(sorted);
+      return sorted;
+    }
+
+    synchronized void clear() {
+      next = 0;
+      count = 0;
+    }
+  }
+}
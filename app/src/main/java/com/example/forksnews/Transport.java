@@ -0,0 +1,247 @@
+package com.example.forksnews;
+
+import com.example.forksnews.Tracer.Span;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * HTTP transport behind {@link QueryUtils}.
+ * <p>
+ * Connections are never torn down with {@link HttpURLConnection#disconnect()}. Instead every body is
+ * read to the end and closed, which hands the socket back to the platform's keep-alive pool so the
+ * next request to content.guardianapis.com skips the TCP and TLS handshakes. Bodies are requested
+ * gzip encoded and inflated as they are read, and each {@link Response} counts the bytes that came
+ * over the wire against the bytes handed to the caller.
+ * <p>
+ * A request made with a {@link CancellationToken} is disconnected as soon as the token is
+ * cancelled, and its body is then dropped rather than drained.
+ */
+public final class Transport {
+
+  private static final int READ_TIMEOUT = 10000; // milliseconds
+  private static final int CONNECT_TIMEOUT = 15000; // milliseconds
+  private static final int MAX_IDLE_CONNECTIONS = 5;
+
+  private static final AtomicLong totalWireBytes = new AtomicLong();
+  private static final AtomicLong totalDecodedBytes = new AtomicLong();
+
+  static {
+    // Keep-alive is on by default, make sure nothing has turned it off and allow a few idle
+    // sockets so concurrent requests can all be reused
+    System.setProperty("http.keepAlive", "true");
+    System.setProperty("http.maxConnections", String.valueOf(MAX_IDLE_CONNECTIONS));
+  }
+
+  // static use only
+  private Transport() {
+  }
+
+  /**
+   * Send a GET request for {@param url} with the given extra request headers, given as name and
+   * value pairs.
+   *
+   * @param token Cancels the request, or null if it cannot be cancelled
+   */
+  public static Response get(URL url, CancellationToken token, String... headers)
+      throws IOException {
+    HttpURLConnection urlConnection = (HttpURLConnection) url.openConnection();
+    urlConnection.setReadTimeout(READ_TIMEOUT);
+    urlConnection.setConnectTimeout(CONNECT_TIMEOUT);
+    urlConnection.setRequestMethod("GET");
+    // Asking for gzip explicitly turns off transparent decompression, so the wire bytes can be
+    // counted before they are inflated
+    urlConnection.setRequestProperty("Accept-Encoding", "gzip");
+    for (int i = 0; i + 1 < headers.length; i += 2) {
+      if (headers[i + 1] != null) {
+        urlConnection.setRequestProperty(headers[i], headers[i + 1]);
+      }
+    }
+    if (token != null) {
+      token.register(urlConnection);
+    }
+    try {
+      long start = Tracer.start();
+      urlConnection.connect();
+      Tracer.end(Span.CONNECT, start);
+      return new Response(urlConnection, token);
+    } catch (IOException e) {
+      if (token != null) {
+        token.unregister(urlConnection);
+      }
+      throw e;
+    }
+  }
+
+  /**
+   * Return the number of bytes received over the wire by all requests so far.
+   */
+  public static long getTotalWireBytes() {
+    return totalWireBytes.get();
+  }
+
+  /**
+   * Return the number of body bytes handed to callers by all requests so far.
+   */
+  public static long getTotalDecodedBytes() {
+    return totalDecodedBytes.get();
+  }
+
+  /**
+   * An HTTP response whose body is inflated as it is read. Closing it drains the body so the
+   * connection can be reused.
+   */
+  public static final class Response implements Closeable {
+
+    private final HttpURLConnection urlConnection;
+    private final CancellationToken token;
+    private final int code;
+    private CountingInputStream wire;
+    private InputStream inflated;
+    private CountingInputStream decoded;
+
+    private Response(HttpURLConnection urlConnection, CancellationToken token)
+        throws IOException {
+      this.urlConnection = urlConnection;
+      this.token = token;
+      long start = Tracer.start();
+      this.code = urlConnection.getResponseCode();
+      Tracer.end(Span.FIRST_BYTE, start);
+    }
+
+    public int getCode() {
+      return code;
+    }
+
+    public String getHeader(String name) {
+      return urlConnection.getHeaderField(name);
+    }
+
+    /**
+     * Return the decoded response body. Error responses have their error body returned instead.
+     * Closing the returned stream does nothing, the body is released by {@link #close()}.
+     */
+    public InputStream getBody() throws IOException {
+      if (decoded == null) {
+        InputStream raw = code < HttpURLConnection.HTTP_BAD_REQUEST
+            ? urlConnection.getInputStream()
+            : urlConnection.getErrorStream();
+        if (raw == null) {
+          raw = new ByteArrayInputStream(new byte[0]);
+        }
+        wire = new CountingInputStream(raw);
+        PushbackInputStream body = new PushbackInputStream(wire);
+        inflated = "gzip".equalsIgnoreCase(urlConnection.getContentEncoding()) && !isEmpty(body)
+            ? new GZIPInputStream(body)
+            : body;
+        decoded = new CountingInputStream(inflated) {
+          @Override
+          public void close() {
+            // released by Response.close()
+          }
+        };
+      }
+      return decoded;
+    }
+
+    /**
+     * Whether {@param body} ends before its first byte. A 304, or an error without a body, may
+     * still say it is gzip encoded, but has no gzip header to read.
+     */
+    private static boolean isEmpty(PushbackInputStream body) throws IOException {
+      int first = body.read();
+      if (first == -1) {
+        return true;
+      }
+      body.unread(first);
+      return false;
+    }
+
+    /**
+     * Return the number of body bytes received over the wire for this request so far.
+     */
+    public long getWireBytes() {
+      return wire == null ? 0 : wire.count;
+    }
+
+    /**
+     * Return the number of decoded body bytes read from this request so far.
+     */
+    public long getDecodedBytes() {
+      return decoded == null ? 0 : decoded.count;
+    }
+
+    @Override
+    public void close() throws IOException {
+      if (token != null && token.isCancelled()) {
+        // Already disconnected, the rest of the body is not worth the bandwidth
+        totalWireBytes.addAndGet(getWireBytes());
+        totalDecodedBytes.addAndGet(getDecodedBytes());
+        return;
+      }
+      try {
+        // Read what is left so the socket goes back to the pool rather than being discarded
+        InputStream body = getBody();
+        byte[] buffer = new byte[4096];
+        while (body.read(buffer) != -1) {
+          // discard
+        }
+        inflated.close();
+      } catch (IOException e) {
+        // A broken stream cannot be reused
+        urlConnection.disconnect();
+        throw e;
+      } finally {
+        if (token != null) {
+          token.unregister(urlConnection);
+        }
+        totalWireBytes.addAndGet(getWireBytes());
+        totalDecodedBytes.addAndGet(getDecodedBytes());
+      }
+    }
+  }
+
+  /**
+   * Counts the bytes read through it.
+   */
+  private static class CountingInputStream extends FilterInputStream {
+
+    private long count;
+
+    CountingInputStream(InputStream in) {
+      super(in);
+    }
+
+    @Override
+    public int read() throws IOException {
+      int b = super.read();
+      if (b != -1) {
+        count++;
+      }
+      return b;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+      int read = super.read(buffer, offset, length);
+      if (read != -1) {
+        count += read;
+      }
+      return read;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+      long skipped = super.skip(n);
+      count += skipped;
+      return skipped;
+    }
+  }
+}
@@ -0,0 +1,64 @@
+package com.example.forksnews;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ArticleCacheTest {
+
+  private static final String ID = "world/2021/apr/14/some-article";
+  private static final long DAY = 24 * 60 * 60 * 1000;
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void readsBackWhatWasStored() throws IOException {
+    ArticleCache cache = new ArticleCache(new File(folder.getRoot(), "articles"), 1024, DAY);
+    String body = "<p>Caf\u00e9 society</p>";
+
+    cache.put(ID, body);
+    ArticleCache.Entry entry = cache.get(ID);
+
+    assertEquals(body, entry.getBody());
+    assertTrue(entry.isFresh());
+    assertNull(cache.get("world/2021/apr/14/another-article"));
+  }
+
+  @Test
+  public void entriesPastTheirMaxAgeAreStale() throws IOException {
+    ArticleCache cache = new ArticleCache(folder.getRoot(), 1024, -1);
+
+    cache.put(ID, "<p>Old news</p>");
+
+    assertFalse(cache.get(ID).isFresh());
+  }
+
+  @Test
+  public void evictsTheLeastRecentlyUsedPastTheMaxSize() throws IOException {
+    ArticleCache cache = new ArticleCache(folder.getRoot(), 300, DAY);
+    String body = new String(new char[100]).replace('\0', 'x');
+
+    cache.put("a", body);
+    cache.put("b", body);
+    // Both stored long ago, then a used again
+    for (File file : folder.getRoot().listFiles()) {
+      file.setLastModified(1000);
+    }
+    cache.get("a");
+    cache.put("c", body);
+
+    assertNotNull(cache.get("a"));
+    assertNull(cache.get("b"));
+    assertNotNull(cache.get("c"));
+    assertTrue(cache.size() <= 300);
+  }
+}
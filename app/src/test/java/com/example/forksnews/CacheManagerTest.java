@@ -0,0 +1,101 @@
+package com.example.forksnews;
+
+import static android.content.ComponentCallbacks2.TRIM_MEMORY_BACKGROUND;
+import static android.content.ComponentCallbacks2.TRIM_MEMORY_COMPLETE;
+import static android.content.ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL;
+import static android.content.ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW;
+import static android.content.ComponentCallbacks2.TRIM_MEMORY_RUNNING_MODERATE;
+import static android.content.ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN;
+import static org.junit.Assert.assertEquals;
+
+import com.example.forksnews.CacheManager.Kind;
+import java.util.Map;
+import org.junit.Test;
+
+public class CacheManagerTest {
+
+  @Test
+  public void trimsThePrefetchedPagesFirstAndTheThumbnailsLast() {
+    CacheManager manager = managerOfTiers(1000);
+
+    manager.onTrimMemory(TRIM_MEMORY_RUNNING_MODERATE);
+    assertUsage(manager, 500, 1000, 1000, 1000);
+
+    manager.onTrimMemory(TRIM_MEMORY_RUNNING_LOW);
+    assertUsage(manager, 0, 500, 1000, 1000);
+
+    manager.onTrimMemory(TRIM_MEMORY_RUNNING_CRITICAL);
+    assertUsage(manager, 0, 0, 0, 500);
+
+    manager.onTrimMemory(TRIM_MEMORY_COMPLETE);
+    assertUsage(manager, 0, 0, 0, 0);
+  }
+
+  @Test
+  public void hidingTheUiDropsOnlyThePrefetchedPages() {
+    CacheManager manager = managerOfTiers(1000);
+
+    manager.onTrimMemory(TRIM_MEMORY_UI_HIDDEN);
+    assertUsage(manager, 0, 1000, 1000, 1000);
+
+    manager.onTrimMemory(TRIM_MEMORY_BACKGROUND);
+    assertUsage(manager, 0, 0, 0, 500);
+  }
+
+  @Test
+  public void lowMemoryDropsEverything() {
+    CacheManager manager = managerOfTiers(1000);
+
+    manager.onLowMemory();
+    assertUsage(manager, 0, 0, 0, 0);
+    assertEquals(0, manager.getTotalBytes());
+  }
+
+  @Test
+  public void reportsTheUsageOfEveryTier() {
+    CacheManager manager = new CacheManager();
+    manager.setTier(Kind.QUERY_RESULTS, new FakeTier(300));
+    manager.setTier(Kind.THUMBNAILS, new FakeTier(700));
+
+    Map<Kind, Long> usage = manager.getUsage();
+    assertEquals(2, usage.size());
+    assertEquals(300, (long) usage.get(Kind.QUERY_RESULTS));
+    assertEquals(1000, manager.getTotalBytes());
+  }
+
+  // Helper methods
+
+  private static CacheManager managerOfTiers(long bytes) {
+    CacheManager manager = new CacheManager();
+    for (Kind kind : Kind.values()) {
+      manager.setTier(kind, new FakeTier(bytes));
+    }
+    return manager;
+  }
+
+  private static void assertUsage(CacheManager manager, long... bytes) {
+    Map<Kind, Long> usage = manager.getUsage();
+    for (Kind kind : Kind.values()) {
+      assertEquals(kind.toString(), bytes[kind.ordinal()], (long) usage.get(kind));
+    }
+  }
+
+  private static final class FakeTier implements CacheManager.Tier {
+
+    private long bytes;
+
+    FakeTier(long bytes) {
+      this.bytes = bytes;
+    }
+
+    @Override
+    public long byteSize() {
+      return bytes;
+    }
+
+    @Override
+    public void trimToSize(long maxBytes) {
+      bytes = Math.min(bytes, maxBytes);
+    }
+  }
+}
@@ -0,0 +1,105 @@
+package com.example.forksnews;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class FeedSnapshotFileTest {
+
+  private static final String FEED = "search?order-by=newest&q=conspiracy";
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void readsBackWhatWasWritten() throws IOException {
+    FeedSnapshotFile snapshot = new FeedSnapshotFile(folder.newFile());
+    List<News> written = feed();
+
+    snapshot.write(FEED, written);
+    List<News> read = snapshot.read(FEED);
+
+    assertEquals(written.size(), read.size());
+    for (int i = 0; i < written.size(); i++) {
+      News w = written.get(i);
+      News r = read.get(i);
+      assertEquals(w.getTitle(), r.getTitle());
+      assertEquals(w.getSection(), r.getSection());
+      assertEquals(w.getContributor(), r.getContributor());
+      assertEquals(w.getPublishedAt(), r.getPublishedAt());
+      assertEquals(w.getUrl(), r.getUrl());
+      assertEquals(w.getThumbnail(), r.getThumbnail());
+      assertEquals(w.getId(), r.getId());
+    }
+  }
+
+  @Test
+  public void ignoresSnapshotsOfOtherFeeds() throws IOException {
+    FeedSnapshotFile snapshot = new FeedSnapshotFile(folder.newFile());
+    snapshot.write(FEED, feed());
+
+    assertNull(snapshot.read("search?order-by=newest&q=brexit"));
+  }
+
+  @Test
+  public void ignoresMissingFiles() throws IOException {
+    assertNull(new FeedSnapshotFile(new File(folder.getRoot(), "missing")).read(FEED));
+  }
+
+  @Test
+  public void ignoresOtherVersionsAndDamagedFiles() throws IOException {
+    byte[] encoded = FeedSnapshotFile.encode(FEED, feed(), 0);
+
+    ByteBuffer otherVersion = ByteBuffer.wrap(encoded.clone());
+    otherVersion.putInt(4, FeedSnapshotFile.VERSION + 1);
+    assertNull(FeedSnapshotFile.decode(otherVersion, FEED));
+
+    assertNull(FeedSnapshotFile.decode(ByteBuffer.wrap(encoded, 0, encoded.length - 1), FEED));
+
+    ByteBuffer badIndex = ByteBuffer.wrap(encoded.clone());
+    badIndex.putInt(encoded.length - 4, 1000);
+    assertNull(FeedSnapshotFile.decode(badIndex, FEED));
+
+    File file = folder.newFile();
+    new FeedSnapshotFile(file).write(FEED, feed());
+    try (RandomAccessFile truncated = new RandomAccessFile(file, "rw")) {
+      truncated.setLength(truncated.length() / 2);
+    }
+    assertNull(new FeedSnapshotFile(file).read(FEED));
+  }
+
+  @Test
+  public void storesRepeatedStringsOnce() {
+    List<News> feed = feed();
+    int once = FeedSnapshotFile.encode(FEED, feed.subList(0, 1), 0).length;
+    int twice = FeedSnapshotFile.encode(FEED,
+        Arrays.asList(feed.get(0), feed.get(0)), 0).length;
+
+    // A second copy of the same news only adds its time and string indexes
+    assertEquals(8 + 6 * 4, twice - once);
+  }
+
+  // Helper methods
+
+  private static List<News> feed() {
+    return Arrays.asList(
+        new News("Conspiracy theories spread online", "Technology", 1618394432000L,
+            "Alex Hern", "https://www.theguardian.com/technology/2021/apr/14/a",
+            "https://media.guim.co.uk/a/500.jpg"),
+        new News("Inside the QAnon movement", "US news", 1618308032000L, "Lois Beckett",
+            "https://www.theguardian.com/us-news/2021/apr/13/b",
+            "https://media.guim.co.uk/b/500.jpg"),
+        new News("world/live/2021/apr/12/c", "\u00c9lys\u00e9e denies rumours \u2013 again",
+            "World news", 1618221632000L, "Anonymous", "https://example.com/c",
+            "https://example.com/c.jpg"));
+  }
+}
@@ -0,0 +1,147 @@
+package com.example.forksnews;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import org.junit.Test;
+
+public class FeedStoreTest {
+
+  @Test
+  public void appendingAPageLeavesTheOldSnapshotAsItWas() {
+    Feed first = Feed.of("feed", page(0, 3), false);
+    Feed second = first.withPage(2, page(3, 3), 5, true);
+
+    assertEquals(2, first.getRelated().size());
+    assertEquals(1, first.getLoadedPage());
+    assertEquals(5, second.getRelated().size());
+    assertEquals(2, second.getLoadedPage());
+    assertTrue(second.isComplete());
+    assertSame(first.getMain(), second.getMain());
+  }
+
+  @Test
+  public void dropsTheOldestPagesPastTheResidentCap() {
+    Feed feed = Feed.of("feed", page(0, 3), false);
+    for (int page = 2; page <= 4; page++) {
+      feed = feed.withPage(page, page((page - 1) * 3, 3), 2, false);
+    }
+
+    // pages 3 and 4 are resident, the main card stays
+    assertEquals(titles(6, 12), titles(feed.getRelated()));
+    assertEquals("0", feed.getMain().getTitle());
+  }
+
+  @Test
+  public void leavesOutNewsAlreadyInTheFeed() {
+    Feed feed = Feed.of("feed", page(0, 3), false);
+    // newest first, two articles published since page 1 shift its tail onto page 2
+    feed = feed.withPage(2, page(1, 4), 5, false);
+
+    assertEquals(titles(1, 5), titles(feed.getRelated()));
+    assertEquals("0", feed.getMain().getTitle());
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void snapshotsCannotBeModified() {
+    Feed.of("feed", page(0, 3), false).getRelated().remove(0);
+  }
+
+  @Test
+  public void keepsOnlyTheFeedsPublishedMostRecently() {
+    FeedStore store = new FeedStore(2);
+    store.publish(Feed.of("a", page(0, 1), true));
+    store.publish(Feed.of("b", page(0, 1), true));
+    store.publish(Feed.of("a", page(0, 2), true));
+    store.publish(Feed.of("c", page(0, 1), true));
+
+    assertNull(store.get("b"));
+    assertEquals(1, store.get("a").getRelated().size());
+    assertEquals(0, store.get("c").getRelated().size());
+  }
+
+  @Test
+  public void racingUpdatesAreAllApplied() throws InterruptedException {
+    FeedStore store = new FeedStore(16);
+    store.publish(Feed.of("feed", page(0, 1), false));
+    int threads = 4;
+    int pagesEach = 50;
+    CountDownLatch start = new CountDownLatch(1);
+    List<Thread> writers = new ArrayList<>();
+    for (int t = 0; t < threads; t++) {
+      Thread writer = new Thread(() -> {
+        try {
+          start.await();
+        } catch (InterruptedException e) {
+          return;
+        }
+        for (int i = 0; i < pagesEach; i++) {
+          store.update("feed", current -> current.withPage(current.getLoadedPage() + 1,
+              page(current.getLoadedPage(), 1), Integer.MAX_VALUE, false));
+        }
+      });
+      writer.start();
+      writers.add(writer);
+    }
+    start.countDown();
+    for (Thread writer : writers) {
+      writer.join();
+    }
+
+    assertEquals(1 + threads * pagesEach, store.get("feed").getLoadedPage());
+    assertEquals(threads * pagesEach, store.get("feed").getRelated().size());
+  }
+
+  @Test
+  public void trimmingDropsTheOldestFeedsButNotTheOneShown() {
+    FeedStore store = new FeedStore(16);
+    store.publish(Feed.of("shown", page(0, 5), true));
+    store.publish(Feed.of("a", page(0, 5), true));
+    store.publish(Feed.of("b", page(0, 5), true));
+    store.setShown("shown");
+    long feedBytes = store.get("b").byteSize();
+
+    store.trimToSize(store.byteSize() - 1);
+    assertNotNull(store.get("shown"));
+    assertNull(store.get("a"));
+    assertNotNull(store.get("b"));
+
+    store.trimToSize(0);
+    assertNotNull(store.get("shown"));
+    assertNull(store.get("b"));
+    assertEquals(feedBytes, store.byteSize());
+  }
+
+  // Helper methods
+
+  private static List<News> page(int first, int count) {
+    List<News> page = new ArrayList<>();
+    for (int i = first; i < first + count; i++) {
+      page.add(new News(String.valueOf(i), "World news", i, "Anonymous",
+          "https://www.theguardian.com/" + i, "https://media.guim.co.uk/" + i + ".jpg"));
+    }
+    return page;
+  }
+
+  private static List<String> titles(int first, int end) {
+    List<String> titles = new ArrayList<>();
+    for (int i = first; i < end; i++) {
+      titles.add(String.valueOf(i));
+    }
+    return titles;
+  }
+
+  private static List<String> titles(List<News> newsList) {
+    List<String> titles = new ArrayList<>();
+    for (News news : newsList) {
+      titles.add(news.getTitle());
+    }
+    return titles;
+  }
+}
@@ -0,0 +1,76 @@
+package com.example.forksnews;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class HttpCacheTest {
+
+  private static final String BODY = "{\"response\":{\"results\":[]}}";
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @After
+  public void uninstall() {
+    HttpCache.setInstalled(null);
+  }
+
+  @Test
+  public void storesTheWholeBodyOfAPartlyReadEditor() throws IOException {
+    HttpCache cache = HttpCache.install(folder.getRoot(), 1024, 1000, 1000);
+    URL url = new URL("https://content.guardianapis.com/search?q=a");
+
+    HttpCache.Editor editor = cache.edit(url, stream(BODY));
+    byte[] head = new byte[5];
+    assertEquals(5, editor.read(head, 0, head.length));
+    editor.commit("\"etag\"", null);
+
+    HttpCache.Entry entry = cache.get(url);
+    assertEquals("\"etag\"", entry.getEtag());
+    assertEquals(BODY, read(entry.open()));
+  }
+
+  @Test
+  public void anAbortedEditorLeavesTheOldEntry() throws IOException {
+    HttpCache cache = HttpCache.install(folder.getRoot(), 1024, 1000, 1000);
+    URL url = new URL("https://content.guardianapis.com/search?q=b");
+
+    cache.put(url, "old", null, stream(BODY));
+    HttpCache.Editor editor = cache.edit(url, stream("{\"cut short"));
+    editor.read(new byte[4], 0, 4);
+    editor.abort();
+
+    assertEquals("old", cache.get(url).getEtag());
+    assertEquals(BODY, read(cache.get(url).open()));
+    assertNull(cache.get(new URL("https://content.guardianapis.com/search?q=c")));
+  }
+
+  // Helper methods
+
+  private static InputStream stream(String body) {
+    return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static String read(InputStream in) throws IOException {
+    try (InputStream body = in) {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      byte[] buffer = new byte[256];
+      int read;
+      while ((read = body.read(buffer)) != -1) {
+        out.write(buffer, 0, read);
+      }
+      return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+  }
+}
@@ -0,0 +1,183 @@
+package com.example.forksnews;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.time.ZonedDateTime;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import org.junit.Test;
+
+/**
+ * Compares the heap retained by 1,000 {@link News} against the same articles held the way News
+ * used to hold them: raw strings for everything plus a parsed {@link ZonedDateTime}.
+ * <p>
+ * The heap is computed from the fields and strings of the articles rather than measured, so the
+ * comparison does not depend on when the collector runs. The layout is that of a 64-bit VM with
+ * compressed references: 12 byte headers, 4 byte references, objects padded to 8 bytes and ASCII
+ * strings stored one byte per char.
+ */
+public class NewsFootprintTest {
+
+  private static final int ARTICLES = 1000;
+  private static final String[] SECTIONS = {"World news", "Politics", "Sport", "Culture",
+      "Technology", "Business", "Opinion", "Environment", "Books", "US news"};
+  private static final int CONTRIBUTORS = 50;
+
+  private static final int OBJECT_HEADER = 12;
+  private static final int ARRAY_HEADER = 16;
+  private static final int REFERENCE = 4;
+  // a String holds its value array, hash and coder
+  private static final int STRING_FIELDS = REFERENCE + 4 + 1;
+  // a ZonedDateTime with its LocalDateTime, LocalDate and LocalTime, the zone is shared
+  private static final int ZONED_DATE_TIME = 4 * 24;
+
+  @Test
+  public void repeatedStringsAreShared() {
+    News first = article(1);
+    News second = article(1 + SECTIONS.length * CONTRIBUTORS);
+
+    assertSame(first.getSection(), second.getSection());
+    assertSame(first.getContributor(), second.getContributor());
+  }
+
+  @Test
+  public void linksRoundTrip() {
+    News news = article(7);
+
+    assertEquals(url(7), news.getUrl());
+    assertEquals(thumbnail(7), news.getThumbnail());
+    assertEquals("https://example.com/other", new News("Title", "Section", 0L, "Contributor",
+        "https://example.com/other", "thumbnail").getUrl());
+  }
+
+  @Test
+  public void compactModelRetainsLessHeap() throws IllegalAccessException {
+    Object[] legacy = new Object[ARTICLES];
+    Object[] compact = new Object[ARTICLES];
+    for (int i = 0; i < ARTICLES; i++) {
+      legacy[i] = new LegacyNews(i);
+      compact[i] = article(i);
+    }
+
+    long legacyBytes = retainedBytes(legacy);
+    long compactBytes = retainedBytes(compact);
+    assertTrue("compact " + compactBytes + " >= raw " + legacyBytes, compactBytes < legacyBytes);
+  }
+
+  // Helper methods
+
+  /**
+   * Return the bytes {@param objects} retain, see the class comment. An object reachable from
+   * several of them is counted once.
+   */
+  private static long retainedBytes(Object[] objects) throws IllegalAccessException {
+    Set<Object> counted = Collections.newSetFromMap(new IdentityHashMap<>());
+    long bytes = align(ARRAY_HEADER + (long) REFERENCE * objects.length);
+    for (Object object : objects) {
+      bytes += retainedBytes(object, counted);
+    }
+    return bytes;
+  }
+
+  private static long retainedBytes(Object object, Set<Object> counted)
+      throws IllegalAccessException {
+    if (object == null || !counted.add(object)) {
+      return 0;
+    }
+    if (object instanceof String) {
+      return align(OBJECT_HEADER + STRING_FIELDS) + align(ARRAY_HEADER + ((String) object).length());
+    }
+    if (object instanceof ZonedDateTime) {
+      return ZONED_DATE_TIME;
+    }
+    if (object.getClass().getPackage() != NewsFootprintTest.class.getPackage()) {
+      throw new IllegalArgumentException("No size for a " + object.getClass());
+    }
+
+    long size = OBJECT_HEADER;
+    long referenced = 0;
+    for (Field field : object.getClass().getDeclaredFields()) {
+      if (Modifier.isStatic(field.getModifiers())) {
+        continue;
+      }
+      Class<?> type = field.getType();
+      if (!type.isPrimitive()) {
+        size += REFERENCE;
+        field.setAccessible(true);
+        referenced += retainedBytes(field.get(object), counted);
+      } else if (type == long.class || type == double.class) {
+        size += 8;
+      } else if (type == int.class || type == float.class) {
+        size += 4;
+      } else if (type == short.class || type == char.class) {
+        size += 2;
+      } else {
+        size += 1;
+      }
+    }
+    return align(size) + referenced;
+  }
+
+  private static long align(long size) {
+    return (size + 7) & ~7;
+  }
+
+  private static News article(int i) {
+    return new News(title(i), copy(SECTIONS[i % SECTIONS.length]), date(i),
+        copy(contributor(i)), url(i), thumbnail(i));
+  }
+
+  // Every parsed string is a new instance, just like strings read off a response
+  private static String copy(String value) {
+    return new String(value.toCharArray());
+  }
+
+  private static String title(int i) {
+    return "Conspiracy theories and why we believe them, part " + i;
+  }
+
+  private static String contributor(int i) {
+    return "Contributor Number " + (i % CONTRIBUTORS);
+  }
+
+  private static String date(int i) {
+    return String.format("2021-04-%02dT%02d:%02d:13Z", 1 + i % 28, i % 24, i % 60);
+  }
+
+  private static String url(int i) {
+    return "https://www.theguardian.com/world/2021/apr/01/conspiracy-article-" + i;
+  }
+
+  private static String thumbnail(int i) {
+    return "https://media.guim.co.uk/" + Integer.toHexString(i) + "/0_0_3500_2100/500.jpg";
+  }
+
+  /**
+   * The fields News held before it was made compact.
+   */
+  private static final class LegacyNews {
+
+    private final String title;
+    private final String url;
+    private final String section;
+    private final String publicationDate;
+    private final String contributor;
+    private final String thumbnail;
+    private final ZonedDateTime datetime;
+
+    LegacyNews(int i) {
+      this.title = title(i);
+      this.url = url(i);
+      this.section = copy(SECTIONS[i % SECTIONS.length]);
+      this.publicationDate = date(i);
+      this.contributor = copy(contributor(i));
+      this.thumbnail = thumbnail(i);
+      this.datetime = ZonedDateTime.parse(this.publicationDate);
+    }
+  }
+}
@@ -0,0 +1,36 @@
+package com.example.forksnews;
+
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+
+public class NewsRepositoryTest {
+
+  private static final int PAGE_SIZE = 20;
+
+  @Test
+  public void aFullMergedPageStandsForTheFirstPage() {
+    List<News> stored = news(PAGE_SIZE);
+
+    assertSame(stored, NewsRepository.mergedFirstPage(stored, PAGE_SIZE));
+  }
+
+  @Test
+  public void aMergedPageTrimmedShortIsFetchedWholeRatherThanEndingTheFeed() {
+    // what is left of a feed after the store was trimmed to its newest news
+    assertNull(NewsRepository.mergedFirstPage(news(PAGE_SIZE - 5), PAGE_SIZE));
+    assertNull(NewsRepository.mergedFirstPage(new ArrayList<>(), PAGE_SIZE));
+  }
+
+  private static List<News> news(int count) {
+    List<News> newsList = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      newsList.add(new News(String.valueOf(i), "World news", i, "Anonymous",
+          "https://www.theguardian.com/" + i, "https://media.guim.co.uk/" + i + ".jpg"));
+    }
+    return newsList;
+  }
+}
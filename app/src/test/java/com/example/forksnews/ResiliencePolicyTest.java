@@ -0,0 +1,110 @@
+package com.example.forksnews;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+public class ResiliencePolicyTest {
+
+  @Test
+  public void retriesOnlyRateLimitsAndServerErrors() {
+    RetryPolicy policy = new RetryPolicy(4, 500, 8000, 30000, new Random(1));
+
+    assertTrue(policy.isRetryable(429));
+    assertTrue(policy.isRetryable(503));
+    assertFalse(policy.isRetryable(400));
+    assertFalse(policy.isRetryable(401));
+    assertFalse(policy.isRetryable(404));
+  }
+
+  @Test
+  public void backoffGrowsWithJitterUpToTheCap() {
+    RetryPolicy policy = new RetryPolicy(10, 500, 2000, 30000, new Random(1));
+
+    for (int attempt = 1; attempt < 10; attempt++) {
+      long cap = Math.min(2000, 500L << (attempt - 1));
+      for (int i = 0; i < 100; i++) {
+        long delay = policy.delayAfter(attempt, null);
+        assertTrue("Attempt " + attempt + " waited " + delay, delay >= 0 && delay < cap);
+      }
+    }
+    assertEquals(-1, policy.delayAfter(10, null));
+  }
+
+  @Test
+  public void honoursRetryAfterUpToItsLimit() {
+    RetryPolicy policy = new RetryPolicy(4, 10, 10, 30000, new Random(1));
+
+    assertEquals(20000, policy.delayAfter(1, "20"));
+    assertEquals(-1, policy.delayAfter(1, "31"));
+    assertEquals(-1, policy.delayAfter(4, "1"));
+  }
+
+  @Test
+  public void parsesRetryAfterSecondsAndDates() {
+    long now = 784111777000L; // Sun, 06 Nov 1994 08:49:37 GMT
+
+    assertEquals(120000, RetryPolicy.parseRetryAfter(" 120 ", now));
+    assertEquals(60000, RetryPolicy.parseRetryAfter("Sun, 06 Nov 1994 08:50:37 GMT", now));
+    assertEquals(0, RetryPolicy.parseRetryAfter("Sun, 06 Nov 1994 08:48:37 GMT", now));
+    assertEquals(0, RetryPolicy.parseRetryAfter("soon", now));
+    assertEquals(0, RetryPolicy.parseRetryAfter(null, now));
+  }
+
+  @Test
+  public void breakerOpensAfterConsecutiveFailures() {
+    CircuitBreaker breaker = new CircuitBreaker(3, 60000);
+
+    breaker.recordFailure();
+    breaker.recordFailure();
+    breaker.recordSuccess();
+    breaker.recordFailure();
+    breaker.recordFailure();
+    assertTrue(breaker.allowRequest());
+
+    breaker.recordFailure();
+    assertTrue(breaker.isOpen());
+    assertFalse(breaker.allowRequest());
+  }
+
+  @Test
+  public void breakerLetsOneTrialThroughOnceOpenTimeHasPassed() throws InterruptedException {
+    CircuitBreaker breaker = new CircuitBreaker(1, 50);
+    breaker.recordFailure();
+    assertFalse(breaker.allowRequest());
+
+    Thread.sleep(60);
+    assertTrue(breaker.allowRequest());
+    assertFalse(breaker.allowRequest());
+
+    // A failed trial opens it again
+    breaker.recordFailure();
+    assertFalse(breaker.allowRequest());
+
+    Thread.sleep(60);
+    assertTrue(breaker.allowRequest());
+    breaker.recordSuccess();
+    assertFalse(breaker.isOpen());
+    assertTrue(breaker.allowRequest());
+  }
+
+  @Test
+  public void rateLimiterAllowsTheBurstThenSpacesPermits() {
+    RateLimiter limiter = new RateLimiter(10, 3);
+
+    assertEquals(0, limiter.reserve());
+    assertEquals(0, limiter.reserve());
+    assertEquals(0, limiter.reserve());
+    long first = limiter.reserve();
+    long second = limiter.reserve();
+    assertTrue(first > 0 && first <= TimeUnit.MILLISECONDS.toNanos(100));
+    // Each waiting caller is a whole interval behind the one before it
+    long interval = second - first;
+    assertTrue("Interval " + interval, Math.abs(interval - TimeUnit.MILLISECONDS.toNanos(100))
+        < TimeUnit.MILLISECONDS.toNanos(10));
+  }
+}
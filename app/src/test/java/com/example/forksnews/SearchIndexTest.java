@@ -0,0 +1,119 @@
+package com.example.forksnews;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+public class SearchIndexTest {
+
+  private static final long BIG_BUDGET = 1024 * 1024;
+
+  @Test
+  public void matchesPrefixesOfEveryTerm() {
+    SearchIndex index = new SearchIndex(BIG_BUDGET);
+    index.addAll(Arrays.asList(
+        news(1, "Climate talks stall in Glasgow", "Environment", "Fiona Harvey"),
+        news(2, "Climate of fear at the Capitol", "US news", "David Smith"),
+        news(3, "Glasgow weather warning", "UK news", "Libby Brooks")));
+
+    assertEquals(urls(2, 1), urls(index.search("clim", 10)));
+    assertEquals(urls(1), urls(index.search("CLIMATE glas", 10)));
+    assertTrue(index.search("climate moon", 10).isEmpty());
+  }
+
+  @Test
+  public void ranksTitleMatchesAboveOtherFieldsAndWholeWordsAbovePrefixes() {
+    SearchIndex index = new SearchIndex(BIG_BUDGET);
+    index.addAll(Arrays.asList(
+        news(1, "Budget day", "Politics", "Sport Reporter"),
+        news(2, "Sporting chance", "Football", "Someone"),
+        news(3, "Sport returns", "Football", "Someone")));
+
+    assertEquals(urls(3, 2, 1), urls(index.search("sport", 10)));
+  }
+
+  @Test
+  public void replacesArticlesByUrl() {
+    SearchIndex index = new SearchIndex(BIG_BUDGET);
+    index.addAll(Arrays.asList(news(1, "Old headline", "World", "A")));
+    index.addAll(Arrays.asList(news(1, "New headline", "World", "A")));
+
+    assertEquals(1, index.size());
+    assertTrue(index.search("old", 10).isEmpty());
+    assertEquals(urls(1), urls(index.search("new", 10)));
+  }
+
+  @Test
+  public void replacingAnArticleReleasesAllItAdded() {
+    SearchIndex replaced = new SearchIndex(BIG_BUDGET);
+    replaced.addAll(Arrays.asList(news(1, "Rain, rain and more rain", "Weather", "A")));
+    replaced.addAll(Arrays.asList(news(1, "Sunny spells", "Weather", "A")));
+    SearchIndex fresh = new SearchIndex(BIG_BUDGET);
+    fresh.addAll(Arrays.asList(news(1, "Sunny spells", "Weather", "A")));
+
+    assertEquals(fresh.byteSize(), replaced.byteSize());
+  }
+
+  @Test
+  public void searchesDoNotWaitForWriters() throws Exception {
+    SearchIndex index = new SearchIndex(BIG_BUDGET);
+    index.addAll(Arrays.asList(news(1, "Climate talks stall", "Environment", "Fiona Harvey")));
+
+    // Writers hold the index's lock while adding and compacting
+    ExecutorService reader = Executors.newSingleThreadExecutor();
+    try {
+      synchronized (index) {
+        assertEquals(urls(1), urls(reader.submit(() -> index.search("climate", 10))
+            .get(5, TimeUnit.SECONDS)));
+      }
+    } finally {
+      reader.shutdownNow();
+    }
+  }
+
+  @Test
+  public void staysWithinBudgetByDroppingOldestArticles() {
+    long budget = 32 * 1024;
+    SearchIndex index = new SearchIndex(budget);
+    for (int i = 0; i < 2000; i++) {
+      index.addAll(Arrays.asList(news(i, "Headline number" + i + " about topic" + (i % 7),
+          "Section", "Writer " + (i % 13))));
+      assertTrue(index.byteSize() <= budget);
+    }
+
+    assertTrue(index.size() < 2000);
+    assertEquals(urls(1999), urls(index.search("number1999", 10)));
+    assertTrue(index.search("number0", 10).isEmpty());
+  }
+
+  private static News news(int id, String title, String section, String contributor) {
+    return new News(title, section, id * 1000L, contributor, url(id), "");
+  }
+
+  private static String url(int id) {
+    return "https://www.theguardian.com/article/" + id;
+  }
+
+  private static List<String> urls(int... ids) {
+    List<String> urls = new ArrayList<>();
+    for (int id : ids) {
+      urls.add(url(id));
+    }
+    return urls;
+  }
+
+  private static List<String> urls(List<News> newsList) {
+    List<String> urls = new ArrayList<>();
+    for (News news : newsList) {
+      urls.add(news.getUrl());
+    }
+    return urls;
+  }
+}